@@ -5,14 +5,22 @@ import com.example.AssessmentService.exception.ResourceNotFoundException;
 import com.example.AssessmentService.model.Assessment;
 import com.example.AssessmentService.dto.*;
 import com.example.AssessmentService.model.Question;
+import com.example.AssessmentService.service.AssessmentImportService;
 import com.example.AssessmentService.service.AssessmentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Hidden;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,15 +30,38 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:3000")
 public class AssessmentController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private AssessmentService assessmentService;
 
+    @Autowired
+    private AssessmentImportService assessmentImportService;
+
     @GetMapping
     public ResponseEntity<List<Assessment>> getAllAssessments() {
         List<Assessment> assessments = assessmentService.getAllAssessments();
         return ResponseEntity.ok(assessments);
     }
 
+    // Keyset pagination: pass the previous page's nextCursor as "after"; view=summary leaves out questions
+    @GetMapping(params = "size")
+    public ResponseEntity<AssessmentPage<?>> getAssessmentPage(@RequestParam(value = "after", required = false) Long after,
+                                                               @RequestParam("size") int size,
+                                                               @RequestParam(value = "view", defaultValue = "full") String view) {
+        AssessmentPage<?> page = "summary".equals(view)
+                ? assessmentService.getAssessmentSummaryPage(after, size)
+                : assessmentService.getAssessmentPage(after, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAssessments(@RequestParam(value = "view", defaultValue = "full") String view) {
+        boolean summary = "summary".equals(view);
+        StreamingResponseBody body = out -> assessmentService.streamAssessments(out, summary);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     @PostMapping
     public ResponseEntity<?> createAssessment(@RequestBody
                                                   AssessmentDTO assessmentRequest) throws DataIntegrityViolationException {
@@ -40,16 +71,86 @@ public class AssessmentController {
 
     }
 
+    // Accepts a JSON array of assessments and reads it as a stream
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkImportResult>> importAssessments(InputStream assessments) throws IOException {
+        return ResponseEntity.ok(assessmentImportService.importAssessments(assessments));
+    }
+
     @GetMapping("/{setName}")
-    public ResponseEntity<List<Question>> getQuestionsBySetName(@PathVariable("setName") String setName) {
-       List<Question> questionList= assessmentService.getQuestionsSetName(setName);
+    public ResponseEntity<List<QuestionSnapshot>> getQuestionsBySetName(@PathVariable("setName") String setName) {
+       List<QuestionSnapshot> questionList= assessmentService.getQuestionsSetName(setName);
         return ResponseEntity.ok(questionList);
     }
 
     @GetMapping("/set-id/{setid}")
-    public ResponseEntity<List<Question>> getQuestionsBySetid(@PathVariable("setid") long setid) {
-        List<Question> questionList= assessmentService.getQuestionsSetId(setid);
-        return ResponseEntity.ok(questionList);
+    public ResponseEntity<?> getQuestionsBySetid(@PathVariable("setid") long setid,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Approved sets are served from their pre-rendered bytes
+        SetPayload payload = assessmentService.getApprovedSetPayload(setid);
+        if (payload == null) {
+            List<QuestionSnapshot> questionList = assessmentService.getQuestionsSetId(setid);
+            return ResponseEntity.ok(questionList);
+        }
+        if (payload.matches(ifNoneMatch))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(payload.getEtag()).build();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(payload.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding))
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzip());
+        return response.body(payload.getJson());
+    }
+
+    // gzip is accepted when listed (or covered by *) with a q-value above zero; gzip;q=0 refuses it.
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip"))
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            else if (name.equals("*"))
+                any = q;
+        }
+        if (gzip != null)
+            return gzip > 0;
+        return any != null && any > 0;
+    }
+
+    @GetMapping("/set-ids")
+    public ResponseEntity<Map<Long, List<QuestionSnapshot>>> getQuestionsBySetids(@RequestParam("ids") List<Long> setids) {
+        return ResponseEntity.ok(assessmentService.getQuestionsSetIds(setids));
+    }
+
+    @PostMapping("/set-ids")
+    public ResponseEntity<Map<Long, List<QuestionSnapshot>>> postQuestionsBySetids(@RequestBody List<Long> setids) {
+        return ResponseEntity.ok(assessmentService.getQuestionsSetIds(setids));
+    }
+
+    // Ranked question ids and set ids for token (or, with prefix=true, prefix) matches
+    @GetMapping("/search/questions")
+    public ResponseEntity<List<QuestionSearchHit>> searchQuestions(@RequestParam("q") String query,
+                                                                   @RequestParam(value = "prefix", defaultValue = "false") boolean prefix,
+                                                                   @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(assessmentService.searchQuestions(query, prefix, limit));
     }
 
     @PutMapping("/{setid}/question/{questionId}")
@@ -62,6 +163,13 @@ public class AssessmentController {
 
 
 
+    // Approved sets are served from their pre-rendered body with an ETag
+    @PutMapping("/{setid}/approve")
+    public ResponseEntity<String> approveSet(@PathVariable("setid") long setid,
+                                             @RequestParam(value = "approvedBy", required = false) String approvedBy) {
+        return ResponseEntity.ok(assessmentService.approveSet(setid, approvedBy));
+    }
+
     @DeleteMapping("/{setid}/questions/{questionId}")
     public ResponseEntity<Map<String, String>> deleteQuestion(@PathVariable("setid") long setid,
                                                               @PathVariable("questionId") Long questionId) {
@@ -87,6 +195,11 @@ public class AssessmentController {
     }
 
 
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<String> handleMalformedJson(JsonProcessingException exception) {
+        return ResponseEntity.badRequest().body(exception.getOriginalMessage());
+    }
+
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<String> handleDataIntegrityException(
             DataIntegrityViolationException exception) {
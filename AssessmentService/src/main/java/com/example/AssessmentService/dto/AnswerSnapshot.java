@@ -0,0 +1,15 @@
+package com.example.AssessmentService.dto;
+
+import com.example.AssessmentService.model.Answer;
+import lombok.Value;
+
+@Value
+public class AnswerSnapshot {
+    Long answerId;
+    String value;
+    String suggestion;
+
+    public static AnswerSnapshot of(Answer answer) {
+        return new AnswerSnapshot(answer.getAnswerId(), answer.getValue(), answer.getSuggestion());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.AssessmentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} as
+ * {@code after} to read the next page; it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AssessmentPage<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
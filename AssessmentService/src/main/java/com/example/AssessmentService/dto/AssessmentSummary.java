@@ -0,0 +1,20 @@
+package com.example.AssessmentService.dto;
+
+import com.example.AssessmentService.model.SetStatus;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Assessment header without its questions, for catalogue listings.
+ */
+@Value
+public class AssessmentSummary {
+    Long setid;
+    String setName;
+    String domain;
+    String createdby;
+    String approvedby;
+    LocalDateTime createddate;
+    SetStatus status;
+}
@@ -0,0 +1,15 @@
+package com.example.AssessmentService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkImportResult {
+    private String setName;
+    private Long setid;
+    private boolean created;
+    private String message;
+}
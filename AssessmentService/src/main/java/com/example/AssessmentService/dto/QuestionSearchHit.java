@@ -0,0 +1,10 @@
+package com.example.AssessmentService.dto;
+
+import lombok.Value;
+
+@Value
+public class QuestionSearchHit {
+    long questionId;
+    long setid;
+    float score;
+}
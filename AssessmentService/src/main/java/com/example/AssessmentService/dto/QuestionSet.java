@@ -0,0 +1,25 @@
+package com.example.AssessmentService.dto;
+
+import com.example.AssessmentService.model.Assessment;
+import com.example.AssessmentService.model.SetStatus;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Immutable view of an assessment set as held by the question set cache.
+ */
+@Value
+public class QuestionSet {
+    long setid;
+    String setName;
+    SetStatus status;
+    List<QuestionSnapshot> questions;
+
+    public static QuestionSet of(Assessment assessment) {
+        List<QuestionSnapshot> questions = assessment.getQuestions() == null
+                ? List.of()
+                : assessment.getQuestions().stream().map(QuestionSnapshot::of).toList();
+        return new QuestionSet(assessment.getSetid(), assessment.getSetName(), assessment.getStatus(), questions);
+    }
+}
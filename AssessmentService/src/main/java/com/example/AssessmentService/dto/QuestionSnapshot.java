@@ -0,0 +1,24 @@
+package com.example.AssessmentService.dto;
+
+import com.example.AssessmentService.model.Question;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Detached, read-only copy of a question and its answers. Serializes to the
+ * same JSON as the {@link Question} entity.
+ */
+@Value
+public class QuestionSnapshot {
+    long questionId;
+    String description;
+    List<AnswerSnapshot> answers;
+
+    public static QuestionSnapshot of(Question question) {
+        List<AnswerSnapshot> answers = question.getAnswers() == null
+                ? List.of()
+                : question.getAnswers().stream().map(AnswerSnapshot::of).toList();
+        return new QuestionSnapshot(question.getQuestionId(), question.getDescription(), answers);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.AssessmentService.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-rendered response body of an approved set: the JSON bytes, their gzip
+ * encoding and a strong ETag derived from the JSON.
+ */
+@Value
+public class SetPayload {
+    byte[] json;
+    byte[] gzip;
+    String etag;
+
+    public static SetPayload render(ObjectMapper mapper, List<QuestionSnapshot> questions) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(questions);
+            return new SetPayload(json, gzip(json), etag(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean matches(String ifNoneMatch) {
+        return ifNoneMatch != null
+                && (ifNoneMatch.trim().equals("*") || Arrays.asList(ifNoneMatch.split("\\s*,\\s*")).contains(etag));
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(json);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,16 +2,21 @@ package com.example.AssessmentService.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import jakarta.persistence.*;
 
 @Data
 @Entity
 @Table(name = "options")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "answer")
 public class Answer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "answerSeq")
+    @SequenceGenerator(name = "answerSeq", sequenceName = "answer_seq", allocationSize = 50)
     @Column(name = "answer_id")
     private Long answerId;
 
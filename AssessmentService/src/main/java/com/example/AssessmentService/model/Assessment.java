@@ -2,6 +2,8 @@ package com.example.AssessmentService.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -11,10 +13,13 @@ import java.util.List;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assessment")
 public class Assessment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assessmentSeq")
+    @SequenceGenerator(name = "assessmentSeq", sequenceName = "assessment_seq", allocationSize = 50)
     @Column(name = "setid")
     private Long setid;
 
@@ -32,6 +37,7 @@ public class Assessment {
     private SetStatus status;
 
     @OneToMany(cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "assessment-questions")
     @JoinTable(
             name = "set_question_map", // Name of the join table
             joinColumns = @JoinColumn(name = "set_id"), // Foreign key for the Assessment entity
@@ -3,15 +3,22 @@ package com.example.AssessmentService.model;
 import lombok.Data;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.util.List;
 
 @Data
 @Entity
 @Table(name = "question")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "question")
 public class Question {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questionSeq")
+    @SequenceGenerator(name = "questionSeq", sequenceName = "question_seq", allocationSize = 50)
     @Column(name = "question_id")
     private long questionId;
 
@@ -20,6 +27,9 @@ public class Question {
     @Column(name = "description")
     private String description;
 
+    // Answers of every question loaded by the same query are initialized together.
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL)
+    @Fetch(FetchMode.SUBSELECT)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "question-answers")
     private List<Answer> answers;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.AssessmentService.repo;
+
+/**
+ * Question.answers is the inverse side of Answer.question, so Hibernate does not
+ * refresh its second-level cache entry when answers are inserted directly.
+ */
+public interface AnswerCacheEviction {
+    void evictAnswersOf(long questionId);
+}
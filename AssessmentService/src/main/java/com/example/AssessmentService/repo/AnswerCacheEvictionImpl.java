@@ -0,0 +1,31 @@
+package com.example.AssessmentService.repo;
+
+import com.example.AssessmentService.model.Question;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class AnswerCacheEvictionImpl implements AnswerCacheEviction {
+
+    private static final String ANSWERS_ROLE = Question.class.getName() + ".answers";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void evictAnswersOf(long questionId) {
+        CacheImplementor cache = (CacheImplementor) entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictCollectionData(ANSWERS_ROLE, questionId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictCollectionData(ANSWERS_ROLE, questionId);
+                }
+            });
+        }
+    }
+}
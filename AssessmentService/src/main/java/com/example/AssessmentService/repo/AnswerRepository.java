@@ -2,6 +2,13 @@ package com.example.AssessmentService.repo;
 
 import com.example.AssessmentService.model.Answer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface AnswerRepository extends JpaRepository<Answer, Long> {
+public interface AnswerRepository extends JpaRepository<Answer, Long>, AnswerCacheEviction {
+
+    @Modifying
+    @Query("delete from Answer a where a.question.questionId = :questionId")
+    int deleteByQuestionId(@Param("questionId") long questionId);
 }
@@ -1,12 +1,56 @@
 package com.example.AssessmentService.repo;
 
+import com.example.AssessmentService.dto.AssessmentSummary;
 import com.example.AssessmentService.model.Assessment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+// Readers fetch questions eagerly through an entity graph; answers follow in one
+// subselect per query (see Question.answers), so a set loads in a fixed number of statements.
 public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
+    @EntityGraph(attributePaths = "questions")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Assessment> findBySetName(String setName);
+
+    @EntityGraph(attributePaths = "questions")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Assessment> findBySetid(long setid);
 
-}
\ No newline at end of file
+    @Override
+    @EntityGraph(attributePaths = "questions")
+    List<Assessment> findAll();
+
+    @Query("select distinct a from Assessment a left join fetch a.questions where a.setid in :setids")
+    List<Assessment> findWithQuestionsBySetidIn(@Param("setids") Collection<Long> setids);
+
+    // Keyset pagination on setid: pass the last setid of the previous page, or null for the first page
+    @Query("select a.setid from Assessment a where (:after is null or a.setid > :after) order by a.setid")
+    List<Long> findSetidsAfter(@Param("after") Long after, Pageable page);
+
+    @Query("select new com.example.AssessmentService.dto.AssessmentSummary(a.setid, a.setName, a.domain, a.createdby, a.approvedby, a.createddate, a.status)"
+            + " from Assessment a where (:after is null or a.setid > :after) order by a.setid")
+    List<AssessmentSummary> findSummariesAfter(@Param("after") Long after, Pageable page);
+
+    // Single-row lookups on the join table, so question edits do not load the whole set.
+    @Query(value = "select count(*) from set_question_map where set_id = :setid and question_id = :questionId", nativeQuery = true)
+    long countQuestionInSet(@Param("setid") long setid, @Param("questionId") long questionId);
+
+    // The join table has no entity, so the delete stays native. Naming its query space
+    // keeps Hibernate from clearing every cache region; callers evict the set's questions.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "set_question_map"))
+    @Query(value = "delete from set_question_map where set_id = :setid and question_id = :questionId", nativeQuery = true)
+    int removeQuestionFromSet(@Param("setid") long setid, @Param("questionId") long questionId);
+
+}
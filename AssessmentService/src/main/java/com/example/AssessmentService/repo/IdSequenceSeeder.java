@@ -0,0 +1,72 @@
+package com.example.AssessmentService.repo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Moves the id sequences past the ids already stored. Ids used to come from
+ * IDENTITY columns, so an existing database has rows but its *_seq objects
+ * (tables on MySQL, created by the schema update) start at 1, and the pooled
+ * generators would hand out taken ids. Runs once at startup, after the schema
+ * update and before requests are served; a sequence already far enough ahead
+ * is left alone.
+ */
+@Slf4j
+@Component
+public class IdSequenceSeeder implements SmartInitializingSingleton {
+
+    // Same as allocationSize on the entities: a pooled generator hands out up to this many ids below the stored value.
+    private static final int ALLOCATION_SIZE = 50;
+
+    private record IdSequence(String sequence, String table, String idColumn) {
+    }
+
+    private static final List<IdSequence> SEQUENCES = List.of(
+            new IdSequence("assessment_seq", "assessment", "setid"),
+            new IdSequence("question_seq", "question", "question_id"),
+            new IdSequence("answer_seq", "options", "answer_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceSeeder(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        boolean tables = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "MySQL".equals(JdbcUtils.commonDatabaseName(connection.getMetaData().getDatabaseProductName()))));
+        for (IdSequence sequence : SEQUENCES) {
+            Long maxId = jdbcTemplate.queryForObject("select max(" + sequence.idColumn() + ") from " + sequence.table(), Long.class);
+            if (maxId == null)
+                continue;
+            long next = maxId + ALLOCATION_SIZE + 1;
+            if (tables ? seedTable(sequence.sequence(), next) : seedSequence(sequence.sequence(), next))
+                log.info("Moved {} to {}, past the highest stored id {}", sequence.sequence(), next, maxId);
+        }
+    }
+
+    // MySQL has no sequences; Hibernate keeps the next value in a one-row table.
+    private boolean seedTable(String table, long next) {
+        if (jdbcTemplate.update("update " + table + " set next_val = ? where next_val < ?", next, next) > 0)
+            return true;
+        Long rows = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        return rows == 0 && jdbcTemplate.update("insert into " + table + " (next_val) values (?)", next) > 0;
+    }
+
+    private boolean seedSequence(String sequence, long next) {
+        Long current = jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences where upper(sequence_name) = upper(?)", Long.class, sequence);
+        if (current != null && current >= next)
+            return false;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + next);
+        return true;
+    }
+}
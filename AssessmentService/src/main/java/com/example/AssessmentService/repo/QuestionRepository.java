@@ -1,11 +1,27 @@
 package com.example.AssessmentService.repo;
 
 import com.example.AssessmentService.model.Question;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
    Optional<Question> findByQuestionId(Long questionId);
+
+   // Initializes the answers of already loaded questions in a single statement.
+   @Query("select distinct q from Question q left join fetch q.answers where q in :questions")
+   List<Question> fetchAnswers(@Param("questions") Collection<Question> questions);
+
+   @Modifying
+   @Query("delete from Question q where q.questionId = :questionId")
+   int deleteByIdDirect(@Param("questionId") long questionId);
 }
@@ -0,0 +1,144 @@
+package com.example.AssessmentService.service;
+
+import com.example.AssessmentService.dto.AssessmentDTO;
+import com.example.AssessmentService.dto.BulkImportResult;
+import com.example.AssessmentService.dto.QuestionSet;
+import com.example.AssessmentService.model.Assessment;
+import com.example.AssessmentService.utils.AssessmentUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports many assessments from a JSON array without holding the whole array
+ * in memory. Sets are written in chunks, one transaction per chunk, so that
+ * Hibernate can batch the inserts; if a chunk fails it is replayed set by set
+ * to find out which sets were rejected. An array element that is not an
+ * object is reported as a failure in its place; input that ends before the
+ * closing bracket is rejected.
+ */
+@Service
+public class AssessmentImportService {
+
+    @Autowired
+    private AssessmentUtil assessmentUtil;
+
+    @Autowired
+    private QuestionSetCache questionSetCache;
+
+    @Autowired
+    private QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${assessment.import.chunk-size:50}")
+    private int chunkSize = 50;
+
+    public AssessmentImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<BulkImportResult> importAssessments(InputStream json) throws IOException {
+        List<BulkImportResult> results = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+                throw MismatchedInputException.from(parser, AssessmentDTO[].class, "expected a JSON array of assessments");
+
+            List<AssessmentDTO> chunk = new ArrayList<>(chunkSize);
+            int element = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null)
+                    throw MismatchedInputException.from(parser, AssessmentDTO[].class, "input ended inside the array of assessments");
+                if (token != JsonToken.START_OBJECT) {
+                    // Keep results in input order: write what is queued before reporting this element.
+                    if (!chunk.isEmpty())
+                        results.addAll(importChunk(chunk));
+                    chunk.clear();
+                    parser.skipChildren();
+                    results.add(new BulkImportResult(null, null, false, "element " + element + " is not an assessment object"));
+                } else {
+                    chunk.add(parser.readValueAs(AssessmentDTO.class));
+                    if (chunk.size() == chunkSize) {
+                        results.addAll(importChunk(chunk));
+                        chunk.clear();
+                    }
+                }
+                element++;
+            }
+            if (!chunk.isEmpty())
+                results.addAll(importChunk(chunk));
+        }
+        return results;
+    }
+
+    private List<BulkImportResult> importChunk(List<AssessmentDTO> chunk) {
+        try {
+            return transactionTemplate.execute(status -> persist(chunk));
+        } catch (RuntimeException chunkFailure) {
+            List<BulkImportResult> results = new ArrayList<>();
+            for (AssessmentDTO dto : chunk) {
+                try {
+                    results.addAll(transactionTemplate.execute(status -> persist(List.of(dto))));
+                } catch (RuntimeException e) {
+                    results.add(new BulkImportResult(dto.getSetName(), null, false, failureMessage(e)));
+                }
+            }
+            return results;
+        }
+    }
+
+    private List<BulkImportResult> persist(List<AssessmentDTO> chunk) {
+        List<Assessment> assessments = new ArrayList<>(chunk.size());
+        List<QuestionSet> imported = new ArrayList<>(chunk.size());
+        for (AssessmentDTO dto : chunk) {
+            if (dto.getSetName() == null || dto.getSetName().isBlank())
+                throw new IllegalArgumentException("set name is required");
+            if (dto.getQuestions() == null)
+                dto.setQuestions(List.of());
+            Assessment assessment = assessmentUtil.MapToAssessment(dto);
+            entityManager.persist(assessment);
+            assessments.add(assessment);
+        }
+        entityManager.flush();
+        assessments.forEach(assessment -> imported.add(QuestionSet.of(assessment)));
+        entityManager.clear();
+
+        List<BulkImportResult> results = new ArrayList<>(assessments.size());
+        for (QuestionSet set : imported) {
+            questionSetCache.evictName(set.getSetName());
+            questionSearchIndex.index(set.getSetid(), set.getQuestions());
+            results.add(new BulkImportResult(set.getSetName(), set.getSetid(), true, "created"));
+        }
+        return results;
+    }
+
+    private String failureMessage(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException)
+                return "set already exists";
+        }
+        return e.getMessage();
+    }
+}
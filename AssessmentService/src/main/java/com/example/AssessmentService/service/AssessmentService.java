@@ -6,15 +6,30 @@ import com.example.AssessmentService.exception.ResourceNotFoundException;
 import com.example.AssessmentService.model.Answer;
 import com.example.AssessmentService.model.Assessment;
 import com.example.AssessmentService.model.Question;
+import com.example.AssessmentService.model.SetStatus;
 import com.example.AssessmentService.repo.AnswerRepository;
 import com.example.AssessmentService.repo.AssessmentRepository;
 import com.example.AssessmentService.repo.QuestionRepository;
 import com.example.AssessmentService.utils.AssessmentUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -35,13 +50,35 @@ public class  AssessmentService {
     @Autowired
     private AnswerRepository answerRepository;
 
+    @Autowired
+    private QuestionSetCache questionSetCache;
+
+    @Autowired
+    private QuestionSearchIndex questionSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${assessment.page.max-size:200}")
+    private int maxPageSize = 200;
+
     private final String setNameIsInvalid = "Set name is invalid";
     private final String questionIdIsInvalid = "Question id is invalid";
 
     @Transactional
     public Assessment createAssessment(AssessmentDTO assessmentRequest) {
         Assessment assessment = assessmentUtil.MapToAssessment(assessmentRequest);
-        return assessmentRepository.save(assessment);
+        Assessment saved = assessmentRepository.save(assessment);
+        questionSetCache.evictName(saved.getSetName());
+        questionSetCache.evict(saved.getSetid());
+        questionSearchIndex.index(saved.getSetid(), QuestionSet.of(saved).getQuestions());
+        return saved;
     }
 
 
@@ -49,20 +86,99 @@ public class  AssessmentService {
         return assessmentRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public AssessmentPage<Assessment> getAssessmentPage(Long after, int size) {
+        List<Long> setids = assessmentRepository.findSetidsAfter(after, PageRequest.of(0, pageSize(size)));
+        List<Assessment> assessments = new ArrayList<>();
+        if (!setids.isEmpty()) {
+            assessments.addAll(assessmentRepository.findWithQuestionsBySetidIn(setids));
+            List<Question> questions = assessments.stream()
+                    .flatMap(assessment -> assessment.getQuestions().stream())
+                    .collect(Collectors.toList());
+            if (!questions.isEmpty())
+                questionRepository.fetchAnswers(questions);
+            assessments.sort(Comparator.comparing(Assessment::getSetid));
+        }
+        return new AssessmentPage<>(assessments, nextCursor(setids, pageSize(size)));
+    }
+
+    @Transactional(readOnly = true)
+    public AssessmentPage<AssessmentSummary> getAssessmentSummaryPage(Long after, int size) {
+        List<AssessmentSummary> summaries = assessmentRepository.findSummariesAfter(after, PageRequest.of(0, pageSize(size)));
+        List<Long> setids = summaries.stream().map(AssessmentSummary::getSetid).collect(Collectors.toList());
+        return new AssessmentPage<>(summaries, nextCursor(setids, pageSize(size)));
+    }
+
+    /**
+     * Writes the whole catalogue as newline-delimited JSON. Assessments are read
+     * page by page, each page in its own short read-only transaction, so only
+     * one page is ever held in memory.
+     */
+    public void streamAssessments(OutputStream out, boolean summary) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Long after = null;
+        do {
+            Long cursor = after;
+            after = transaction.execute(status -> {
+                AssessmentPage<?> page = summary
+                        ? getAssessmentSummaryPage(cursor, maxPageSize)
+                        : getAssessmentPage(cursor, maxPageSize);
+                try {
+                    for (Object item : page.getItems()) {
+                        writer.writeValue(out, item);
+                        out.write('\n');
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return page.getNextCursor();
+            });
+        } while (after != null);
+    }
+
+    public List<QuestionSearchHit> searchQuestions(String query, boolean prefix, int limit) {
+        return questionSearchIndex.search(query, prefix, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    /**
+     * Fills the search index from the database once the application is up,
+     * one page of sets at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        Long after = null;
+        do {
+            Long cursor = after;
+            after = transaction.execute(status -> {
+                AssessmentPage<Assessment> page = getAssessmentPage(cursor, maxPageSize);
+                page.getItems().forEach(assessment ->
+                        questionSearchIndex.index(assessment.getSetid(), QuestionSet.of(assessment).getQuestions()));
+                return page.getNextCursor();
+            });
+        } while (after != null);
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private Long nextCursor(List<Long> setids, int size) {
+        return setids.size() < size ? null : setids.get(setids.size() - 1);
+    }
+
     @Transactional
     public String updateQuestion(Long setId, Long questionId, List<AnswerDTO> answerDtos) {
-        // Fetch the assessment by ID
-        Assessment assessment = assessmentRepository.findById(setId)
-                .orElseThrow(() -> new ResourceNotFoundException(setNameIsInvalid));
-
-        // Find the question by question ID within the assessment
-        Question questionToUpdate = assessment.getQuestions().stream()
-                .filter(q -> q.getQuestionId()==questionId)
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException(questionIdIsInvalid));
+        // Check set membership on the join table instead of loading the whole set
+        requireQuestionInSet(setId, questionId, questionIdIsInvalid);
 
         // Add answers if provided
         if (answerDtos != null && !answerDtos.isEmpty()) {
+            Question questionToUpdate = questionRepository.getReferenceById(questionId);
             List<Answer> answers = answerDtos.stream()
                     .map(answerDto -> {
                         Answer answer = new Answer();
@@ -72,62 +188,67 @@ public class  AssessmentService {
                         return answer;
                     })
                     .collect(Collectors.toList());
-
-            // Ensure the existing answers list is initialized
-            List<Answer> existingAnswers = questionToUpdate.getAnswers();
-            if (existingAnswers == null) {
-                existingAnswers = new ArrayList<>();
-            }
-
-            // Append the new answers to the existing ones
-            existingAnswers.addAll(answers);
-            questionToUpdate.setAnswers(existingAnswers);
+            answerRepository.saveAll(answers);
+            answerRepository.evictAnswersOf(questionId);
+            questionSearchIndex.addAnswers(questionId, answerDtos);
         }
-
-        // Save the updated assessment and question
-        assessmentRepository.save(assessment);
-        questionRepository.save(questionToUpdate);
+        questionSetCache.evict(setId);
 
         return "Question updated successfully";
     }
 
 
+    /**
+     * Approves a set. Its cached copy and any rendered body are dropped, so the
+     * next read renders the approved set; edits drop the body the same way.
+     */
+    @Transactional
+    public String approveSet(long setid, String approvedBy) {
+        Assessment assessment = assessmentRepository.findById(setid)
+                .orElseThrow(() -> new ResourceNotFoundException("set id is invalid"));
+        assessment.setStatus(SetStatus.APPROVED);
+        assessment.setApprovedby(approvedBy);
+        assessmentRepository.save(assessment);
+        questionSetCache.evict(setid);
+        return "Set approved successfully";
+    }
+
     @Transactional
     public Map<String, String> deleteQuestion(long setid, Long questionId) {
         Map<String, String> response = new HashMap<>();
-        Assessment assessment = assessmentRepository.findById(setid).orElse(null);
-        if (assessment == null) {
-            //throw new ResourceNotFoundException("Assessment not found");
-
-            throw new ResourceNotFoundException(setNameIsInvalid);
-
-        }
-
-        Optional<Question> questionToDelete = assessment.getQuestions().stream()
-                .filter(q -> q.getQuestionId()==questionId)
-                .findFirst();
-
-
-        if (!questionToDelete.isPresent()) {
+        requireQuestionInSet(setid, questionId, "question is not found");
 
-            throw new ResourceNotFoundException("question is not found");
-        }
-
-        assessment.getQuestions().remove(questionToDelete.get());
-        questionRepository.deleteById(questionToDelete.get().getQuestionId());
-        assessmentRepository.save(assessment);
+        assessmentRepository.removeQuestionFromSet(setid, questionId);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictCollectionData(Assessment.class.getName() + ".questions", setid);
+        answerRepository.deleteByQuestionId(questionId);
+        questionRepository.deleteByIdDirect(questionId);
+        questionSetCache.evict(setid);
+        questionSearchIndex.remove(questionId);
 
         response.put("message", "Question deleted successfully");
         return response;
     }
 
+    private void requireQuestionInSet(long setid, long questionId, String questionNotFound) {
+        if (assessmentRepository.countQuestionInSet(setid, questionId) > 0)
+            return;
+        if (!assessmentRepository.existsById(setid))
+            throw new ResourceNotFoundException(setNameIsInvalid);
+        throw new ResourceNotFoundException(questionNotFound);
+    }
+
 
 
-    public List<Question> getQuestionsSetName(String setName) {
+    @Transactional(readOnly = true)
+    public List<QuestionSnapshot> getQuestionsSetName(String setName) {
+        QuestionSet cached = questionSetCache.getBySetName(setName);
+        if (cached != null)
+            return cached.getQuestions();
         Assessment assessment = assessmentRepository.findBySetName(setName).orElse(null);
         if (assessment == null)
             throw new ResourceNotFoundException("set name is invalid");
-        return assessment.getQuestions();
+        return cache(assessment).getQuestions();
 
     }
 
@@ -139,12 +260,70 @@ public class  AssessmentService {
 
     }
 
-    public List<Question> getQuestionsSetId(long setid) {
+    @Transactional(readOnly = true)
+    public Map<Long, List<QuestionSnapshot>> getQuestionsSetIds(Collection<Long> setids) {
+        Map<Long, List<QuestionSnapshot>> sets = new LinkedHashMap<>();
+        if (setids == null || setids.isEmpty())
+            return sets;
+
+        List<Long> misses = new ArrayList<>();
+        for (Long setid : setids) {
+            QuestionSet cached = questionSetCache.getBySetid(setid);
+            if (cached != null)
+                sets.put(setid, cached.getQuestions());
+            else
+                misses.add(setid);
+        }
+        if (misses.isEmpty())
+            return sets;
+
+        List<Assessment> assessments = assessmentRepository.findWithQuestionsBySetidIn(misses);
+        List<Question> questions = assessments.stream()
+                .flatMap(assessment -> assessment.getQuestions().stream())
+                .collect(Collectors.toList());
+        if (!questions.isEmpty())
+            questionRepository.fetchAnswers(questions);
+
+        assessments.forEach(assessment -> sets.put(assessment.getSetid(), cache(assessment).getQuestions()));
+        return sets;
+    }
+
+    @Transactional(readOnly = true)
+    public List<QuestionSnapshot> getQuestionsSetId(long setid) {
+        return loadSet(setid).getQuestions();
+    }
+
+    /**
+     * Returns the pre-rendered response body of an approved set, rendering it on
+     * first use, or null when the set is not approved yet.
+     */
+    @Transactional(readOnly = true)
+    public SetPayload getApprovedSetPayload(long setid) {
+        SetPayload payload = questionSetCache.getPayload(setid);
+        if (payload != null)
+            return payload;
+        QuestionSet set = loadSet(setid);
+        if (set.getStatus() != SetStatus.APPROVED)
+            return null;
+        payload = SetPayload.render(objectMapper, set.getQuestions());
+        questionSetCache.putPayload(setid, payload);
+        return payload;
+    }
+
+    private QuestionSet loadSet(long setid) {
+        QuestionSet cached = questionSetCache.getBySetid(setid);
+        if (cached != null)
+            return cached;
         Assessment assessment = assessmentRepository.findBySetid(setid).orElse(null);
         if (assessment == null)
             throw new ResourceNotFoundException("set id is invalid");
-        return assessment.getQuestions();
+        return cache(assessment);
+    }
 
+    private QuestionSet cache(Assessment assessment) {
+        QuestionSet set = QuestionSet.of(assessment);
+        questionSetCache.put(set);
+        return set;
     }
 
-}
\ No newline at end of file
+}
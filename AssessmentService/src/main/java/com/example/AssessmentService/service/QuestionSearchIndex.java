@@ -0,0 +1,202 @@
+package com.example.AssessmentService.service;
+
+import com.example.AssessmentService.dto.AnswerDTO;
+import com.example.AssessmentService.dto.AnswerSnapshot;
+import com.example.AssessmentService.dto.QuestionSearchHit;
+import com.example.AssessmentService.dto.QuestionSnapshot;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over question descriptions and answer values and
+ * suggestions. Terms are kept in a sorted dictionary so prefix queries are a
+ * range scan; hits are ranked by tf-idf with description terms weighted above
+ * answer terms.
+ *
+ * <p>Writers called inside a transaction are applied after commit, so a rolled
+ * back write never shows up in search results.
+ */
+@Component
+public class QuestionSearchIndex {
+
+    private static final float DESCRIPTION_WEIGHT = 2f;
+    private static final float ANSWER_WEIGHT = 1f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (questionId -> weighted term frequency)
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // questionId -> indexed question
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private static final class Document {
+        private final long setid;
+        private final Map<String, Float> terms = new HashMap<>();
+
+        private Document(long setid) {
+            this.setid = setid;
+        }
+    }
+
+    public void index(long setid, Collection<QuestionSnapshot> questions) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (QuestionSnapshot question : questions) {
+                    removeDocument(question.getQuestionId());
+                    Document document = new Document(setid);
+                    addTerms(document, question.getDescription(), DESCRIPTION_WEIGHT);
+                    for (AnswerSnapshot answer : question.getAnswers()) {
+                        addTerms(document, answer.getValue(), ANSWER_WEIGHT);
+                        addTerms(document, answer.getSuggestion(), ANSWER_WEIGHT);
+                    }
+                    addDocument(question.getQuestionId(), document);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void addAnswers(long questionId, Collection<AnswerDTO> answers) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Document document = documents.get(questionId);
+                if (document == null)
+                    return;
+                removeDocument(questionId);
+                for (AnswerDTO answer : answers) {
+                    addTerms(document, answer.getValue(), ANSWER_WEIGHT);
+                    addTerms(document, answer.getSuggestion(), ANSWER_WEIGHT);
+                }
+                addDocument(questionId, document);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(long questionId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDocument(questionId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} questions matching any query term, best first.
+     * With {@code prefix} set, every query term also matches longer terms that
+     * start with it.
+     */
+    public List<QuestionSearchHit> search(String query, boolean prefix, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0)
+            return List.of();
+
+        Map<Long, Float> scores = new HashMap<>();
+        List<QuestionSearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            double documentCount = documents.size();
+            for (String term : terms) {
+                Map<String, Map<Long, Float>> matches = prefix
+                        ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                        : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+                for (Map<Long, Float> posting : matches.values()) {
+                    float idf = (float) Math.log(1 + documentCount / posting.size());
+                    posting.forEach((questionId, frequency) -> scores.merge(questionId, frequency * idf, Float::sum));
+                }
+            }
+
+            // Keep only the best `limit` scores
+            PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Float> score : scores.entrySet()) {
+                best.offer(score);
+                if (best.size() > limit)
+                    best.poll();
+            }
+            for (Map.Entry<Long, Float> score : best)
+                hits.add(new QuestionSearchHit(score.getKey(), documents.get(score.getKey()).setid, score.getValue()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparing(QuestionSearchHit::getScore).reversed()
+                .thenComparing(QuestionSearchHit::getQuestionId));
+        return hits;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null)
+            return tokens;
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1)
+                tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private void addTerms(Document document, String text, float weight) {
+        for (String token : tokenize(text))
+            document.terms.merge(token, weight, Float::sum);
+    }
+
+    private void addDocument(long questionId, Document document) {
+        documents.put(questionId, document);
+        document.terms.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(questionId, frequency));
+    }
+
+    private void removeDocument(long questionId) {
+        Document document = documents.remove(questionId);
+        if (document == null)
+            return;
+        for (String term : document.terms.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null && posting.remove(questionId) != null && posting.isEmpty())
+                postings.remove(term);
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.AssessmentService.service;
+
+import com.example.AssessmentService.dto.QuestionSet;
+import com.example.AssessmentService.dto.SetPayload;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * In-process cache of question sets, addressable by setid and by set name.
+ * Sets are stored by setid; the name cache only maps a set name to its setid,
+ * so evicting a setid invalidates both lookups. Approved sets additionally keep
+ * their rendered response body until the set changes.
+ */
+@Component
+public class QuestionSetCache {
+
+    private final Cache<Long, QuestionSet> setsById;
+    private final Cache<String, Long> setidsByName;
+    private final Cache<Long, SetPayload> payloadsById;
+
+    public QuestionSetCache(@Value("${assessment.cache.sets.max-size:1000}") long maxSize,
+                            @Value("${assessment.cache.sets.ttl:PT10M}") Duration ttl,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.setsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.setidsByName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Approved sets are immutable until edited, so payloads are only bounded by size.
+        this.payloadsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, setsById, "questionSetsById");
+            CaffeineCacheMetrics.monitor(registry, setidsByName, "questionSetsByName");
+            CaffeineCacheMetrics.monitor(registry, payloadsById, "approvedSetPayloads");
+        });
+    }
+
+    public QuestionSet getBySetid(long setid) {
+        return setsById.getIfPresent(setid);
+    }
+
+    public QuestionSet getBySetName(String setName) {
+        Long setid = setidsByName.getIfPresent(setName);
+        return setid == null ? null : setsById.getIfPresent(setid);
+    }
+
+    public void put(QuestionSet set) {
+        setsById.put(set.getSetid(), set);
+        if (set.getSetName() != null)
+            setidsByName.put(set.getSetName(), set.getSetid());
+    }
+
+    public SetPayload getPayload(long setid) {
+        return payloadsById.getIfPresent(setid);
+    }
+
+    public void putPayload(long setid, SetPayload payload) {
+        payloadsById.put(setid, payload);
+    }
+
+    /**
+     * Drops a set now and, when called inside a transaction, once more after
+     * commit so a reader racing the write cannot re-cache the old contents.
+     */
+    public void evict(long setid) {
+        setsById.invalidate(setid);
+        payloadsById.invalidate(setid);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    setsById.invalidate(setid);
+                    payloadsById.invalidate(setid);
+                }
+            });
+        }
+    }
+
+    public void evictName(String setName) {
+        if (setName != null)
+            setidsByName.invalidate(setName);
+    }
+}
@@ -3,6 +3,9 @@ package com.example.AssessmentService.Controller;
 import com.example.AssessmentService.controller.AssessmentController;
 import com.example.AssessmentService.dto.AnswerDTO;
 import com.example.AssessmentService.dto.AssessmentDTO;
+import com.example.AssessmentService.dto.AssessmentPage;
+import com.example.AssessmentService.dto.QuestionSnapshot;
+import com.example.AssessmentService.dto.SetPayload;
 import com.example.AssessmentService.exception.ResourceNotFoundException;
 import com.example.AssessmentService.model.Assessment;
 import com.example.AssessmentService.model.Question;
@@ -12,15 +15,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.util.*;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
 class AssessmentControllerTest {
@@ -35,6 +42,7 @@ class AssessmentControllerTest {
     private Assessment assessment;
     private Question question;
     private List<AnswerDTO> answerDTOs;
+    private List<QuestionSnapshot> snapshots;
 
     @BeforeEach
     void setUp() {
@@ -57,6 +65,8 @@ class AssessmentControllerTest {
         assessment.setSetName("Test Set");
         assessment.setQuestions(questions);
 
+        snapshots = List.of(QuestionSnapshot.of(question));
+
         answerDTOs = new ArrayList<>();
         answerDTOs.add(new AnswerDTO("Answer 1", "Suggestion 1"));
     }
@@ -74,6 +84,29 @@ class AssessmentControllerTest {
         verify(assessmentService, times(1)).getAllAssessments();
     }
 
+    @Test
+    void testGetAssessmentPage() {
+        AssessmentPage<Assessment> page = new AssessmentPage<>(List.of(assessment), 1L);
+        when(assessmentService.getAssessmentPage(null, 1)).thenReturn(page);
+
+        ResponseEntity<AssessmentPage<?>> response = assessmentController.getAssessmentPage(null, 1, "full");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        verify(assessmentService, never()).getAssessmentSummaryPage(any(), anyInt());
+    }
+
+    @Test
+    void testGetAssessmentSummaryPage() {
+        when(assessmentService.getAssessmentSummaryPage(5L, 10)).thenReturn(new AssessmentPage<>(List.of(), null));
+
+        ResponseEntity<AssessmentPage<?>> response = assessmentController.getAssessmentPage(5L, 10, "summary");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody().getNextCursor());
+        verify(assessmentService, times(1)).getAssessmentSummaryPage(5L, 10);
+    }
+
     @Test
     void testCreateAssessment() {
         when(assessmentService.createAssessment(assessmentDTO)).thenReturn(assessment);
@@ -87,9 +120,9 @@ class AssessmentControllerTest {
 
     @Test
     void testGetQuestionsBySetName() {
-        when(assessmentService.getQuestionsSetName("Test Set")).thenReturn(assessment.getQuestions());
+        when(assessmentService.getQuestionsSetName("Test Set")).thenReturn(snapshots);
 
-        ResponseEntity<List<Question>> response = assessmentController.getQuestionsBySetName("Test Set");
+        ResponseEntity<List<QuestionSnapshot>> response = assessmentController.getQuestionsBySetName("Test Set");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -99,16 +132,74 @@ class AssessmentControllerTest {
 
     @Test
     void testGetQuestionsBySetId() {
-        when(assessmentService.getQuestionsSetId(1L)).thenReturn(assessment.getQuestions());
+        when(assessmentService.getQuestionsSetId(1L)).thenReturn(snapshots);
 
-        ResponseEntity<List<Question>> response = assessmentController.getQuestionsBySetid(1L);
+        ResponseEntity<?> response = assessmentController.getQuestionsBySetid(1L, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
+        assertEquals(snapshots, response.getBody());
         verify(assessmentService, times(1)).getQuestionsSetId(1L);
     }
 
+    @Test
+    void testGetQuestionsBySetId_ApprovedSetServedFromPayload() {
+        SetPayload payload = SetPayload.render(new ObjectMapper(), snapshots);
+        when(assessmentService.getApprovedSetPayload(1L)).thenReturn(payload);
+
+        ResponseEntity<?> plain = assessmentController.getQuestionsBySetid(1L, null, null);
+        ResponseEntity<?> gzipped = assessmentController.getQuestionsBySetid(1L, null, "gzip, deflate");
+
+        assertEquals(HttpStatus.OK, plain.getStatusCode());
+        assertEquals(payload.getEtag(), plain.getHeaders().getETag());
+        assertArrayEquals(payload.getJson(), (byte[]) plain.getBody());
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(payload.getGzip(), (byte[]) gzipped.getBody());
+        verify(assessmentService, never()).getQuestionsSetId(anyLong());
+    }
+
+    @Test
+    void testGetQuestionsBySetId_GzipRefusedWithZeroQuality() {
+        SetPayload payload = SetPayload.render(new ObjectMapper(), snapshots);
+        when(assessmentService.getApprovedSetPayload(1L)).thenReturn(payload);
+
+        ResponseEntity<?> refused = assessmentController.getQuestionsBySetid(1L, null, "gzip;q=0, deflate");
+
+        assertNull(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(payload.getJson(), (byte[]) refused.getBody());
+        assertEquals("gzip", contentEncoding("deflate, gzip;q=0.5"));
+        assertEquals("gzip", contentEncoding("*"));
+        assertNull(contentEncoding("*, GZIP; q=0.0"));
+        assertNull(contentEncoding("identity"));
+    }
+
+    private String contentEncoding(String acceptEncoding) {
+        return assessmentController.getQuestionsBySetid(1L, null, acceptEncoding).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+    }
+
+    @Test
+    void testGetQuestionsBySetId_NotModified() {
+        SetPayload payload = SetPayload.render(new ObjectMapper(), snapshots);
+        when(assessmentService.getApprovedSetPayload(1L)).thenReturn(payload);
+
+        ResponseEntity<?> response = assessmentController.getQuestionsBySetid(1L, payload.getEtag(), null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void testGetQuestionsBySetIds() {
+        Map<Long, List<QuestionSnapshot>> sets = Map.of(1L, snapshots);
+        when(assessmentService.getQuestionsSetIds(Arrays.asList(1L, 2L))).thenReturn(sets);
+
+        ResponseEntity<Map<Long, List<QuestionSnapshot>>> response = assessmentController.getQuestionsBySetids(Arrays.asList(1L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().get(1L).size());
+        verify(assessmentService, times(1)).getQuestionsSetIds(Arrays.asList(1L, 2L));
+    }
+
     @Test
     void testUpdateQuestion() {
         when(assessmentService.updateQuestion(1L, 1L, answerDTOs)).thenReturn("Question updated successfully");
@@ -133,6 +224,16 @@ class AssessmentControllerTest {
         verify(assessmentService, times(1)).deleteQuestion(1L, 1L);
     }
 
+    @Test
+    void testApproveSet() {
+        when(assessmentService.approveSet(1L, "reviewer")).thenReturn("Set approved successfully");
+
+        ResponseEntity<String> response = assessmentController.approveSet(1L, "reviewer");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Set approved successfully", response.getBody());
+    }
+
     @Test
     void testFetchQuestion() {
         when(assessmentService.fetchques(1L)).thenReturn(Optional.of(question));
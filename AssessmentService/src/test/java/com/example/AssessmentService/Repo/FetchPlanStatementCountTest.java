@@ -0,0 +1,194 @@
+package com.example.AssessmentService.Repo;
+
+import com.example.AssessmentService.dto.AnswerDTO;
+import com.example.AssessmentService.dto.AssessmentDTO;
+import com.example.AssessmentService.dto.QuestionRequest;
+import com.example.AssessmentService.service.AssessmentService;
+import com.example.AssessmentService.service.QuestionSearchIndex;
+import com.example.AssessmentService.service.QuestionSetCache;
+import com.example.AssessmentService.utils.AssessmentUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the SQL statements each read path issues, including the lazy loads
+ * triggered by JSON serialization, and fails if the count grows with the
+ * number of questions in a set.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "assessment.page.max-size=2",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AssessmentService.class, AssessmentUtil.class, QuestionSetCache.class, QuestionSearchIndex.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class FetchPlanStatementCountTest {
+
+    @Autowired
+    private AssessmentService assessmentService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getQuestionsBySetIdIsIndependentOfSetSize() {
+        long small = assessmentService.createAssessment(assessment("Small Set", 2)).getSetid();
+        long large = assessmentService.createAssessment(assessment("Large Set", 25)).getSetid();
+
+        assertEquals(
+                statementsFor(() -> assessmentService.getQuestionsSetId(small)),
+                statementsFor(() -> assessmentService.getQuestionsSetId(large)));
+    }
+
+    @Test
+    void getQuestionsBySetNameIsIndependentOfSetSize() {
+        assessmentService.createAssessment(assessment("Small Set", 2));
+        assessmentService.createAssessment(assessment("Large Set", 25));
+
+        assertEquals(
+                statementsFor(() -> assessmentService.getQuestionsSetName("Small Set")),
+                statementsFor(() -> assessmentService.getQuestionsSetName("Large Set")));
+    }
+
+    @Test
+    void getQuestionsBySetIdsIsIndependentOfSetSize() {
+        long small = assessmentService.createAssessment(assessment("Small Set", 2)).getSetid();
+        long large = assessmentService.createAssessment(assessment("Large Set", 25)).getSetid();
+        long other = assessmentService.createAssessment(assessment("Other Set", 10)).getSetid();
+
+        assertEquals(
+                statementsFor(() -> assessmentService.getQuestionsSetIds(List.of(small))),
+                statementsFor(() -> assessmentService.getQuestionsSetIds(List.of(large, other))));
+    }
+
+    @Test
+    void getAllAssessmentsIsIndependentOfCatalogueSize() {
+        assessmentService.createAssessment(assessment("Small Set", 2));
+        long fewSets = statementsFor(() -> assessmentService.getAllAssessments());
+
+        assessmentService.createAssessment(assessment("Large Set", 25));
+        assessmentService.createAssessment(assessment("Other Set", 10));
+        long manySets = statementsFor(() -> assessmentService.getAllAssessments());
+
+        assertEquals(fewSets, manySets);
+    }
+
+    @Test
+    void assessmentPageIsIndependentOfSetSize() {
+        assessmentService.createAssessment(assessment("Small Set", 2));
+        assessmentService.createAssessment(assessment("Large Set", 25));
+        assessmentService.createAssessment(assessment("Other Set", 10));
+
+        long firstPage = statementsFor(() -> assessmentService.getAssessmentPage(null, 1));
+        Long cursor = assessmentService.getAssessmentPage(null, 1).getNextCursor();
+
+        assertEquals(firstPage, statementsFor(() -> assessmentService.getAssessmentPage(cursor, 2)));
+    }
+
+    @Test
+    void streamAssessmentsWritesOneLinePerAssessment() throws Exception {
+        for (int i = 0; i < 5; i++)
+            assessmentService.createAssessment(assessment("Set " + i, 3));
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assessmentService.streamAssessments(out, false);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        assertEquals(3, mapper.readTree(lines[4]).get("questions").size());
+    }
+
+    @Test
+    void updateQuestionIsIndependentOfSetSize() {
+        long small = assessmentService.createAssessment(assessment("Small Set", 2)).getSetid();
+        long large = assessmentService.createAssessment(assessment("Large Set", 25)).getSetid();
+        long smallQuestion = assessmentService.getQuestionsSetId(small).get(0).getQuestionId();
+        long largeQuestion = assessmentService.getQuestionsSetId(large).get(0).getQuestionId();
+        List<AnswerDTO> answers = List.of(new AnswerDTO("Maybe", "Decide soon"));
+
+        assertEquals(
+                statementsFor(() -> assessmentService.updateQuestion(small, smallQuestion, answers)),
+                statementsFor(() -> assessmentService.updateQuestion(large, largeQuestion, answers)));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(3, assessmentService.getQuestionsSetId(large).get(0).getAnswers().size());
+    }
+
+    @Test
+    void deleteQuestionIsIndependentOfSetSize() {
+        long small = assessmentService.createAssessment(assessment("Small Set", 2)).getSetid();
+        long large = assessmentService.createAssessment(assessment("Large Set", 25)).getSetid();
+        long smallQuestion = assessmentService.getQuestionsSetId(small).get(0).getQuestionId();
+        long largeQuestion = assessmentService.getQuestionsSetId(large).get(0).getQuestionId();
+
+        assertEquals(
+                statementsFor(() -> assessmentService.deleteQuestion(small, smallQuestion)),
+                statementsFor(() -> assessmentService.deleteQuestion(large, largeQuestion)));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(24, assessmentService.getQuestionsSetId(large).size());
+    }
+
+    private long statementsFor(Supplier<Object> call) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        try {
+            // Serializing walks the whole graph, just like the controller response does.
+            mapper.writeValueAsString(call.get());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private AssessmentDTO assessment(String setName, int questionCount) {
+        List<QuestionRequest> questions = new ArrayList<>();
+        for (int i = 0; i < questionCount; i++) {
+            QuestionRequest question = new QuestionRequest();
+            question.setDescription("Question " + i);
+            question.setAnswers(List.of(
+                    new AnswerDTO("Yes", "Keep going"),
+                    new AnswerDTO("No", "Start now")));
+            questions.add(question);
+        }
+        AssessmentDTO dto = new AssessmentDTO();
+        dto.setSetName(setName);
+        dto.setDomain("Test Domain");
+        dto.setQuestions(questions);
+        return dto;
+    }
+}
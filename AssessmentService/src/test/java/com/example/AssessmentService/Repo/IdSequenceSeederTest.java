@@ -0,0 +1,70 @@
+package com.example.AssessmentService.Repo;
+
+import com.example.AssessmentService.model.Answer;
+import com.example.AssessmentService.model.Assessment;
+import com.example.AssessmentService.model.Question;
+import com.example.AssessmentService.model.SetStatus;
+import com.example.AssessmentService.repo.AssessmentRepository;
+import com.example.AssessmentService.repo.IdSequenceSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts from rows written while ids were IDENTITY columns and checks that new
+ * rows get fresh ids once the sequences are seeded.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@Import(IdSequenceSeeder.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequenceSeederTest {
+
+    @Autowired
+    private IdSequenceSeeder seeder;
+
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void newIdsStartAboveExistingRows() {
+        jdbcTemplate.update("insert into assessment (setid, set_name, status) values (500, 'Legacy', 0)");
+        jdbcTemplate.update("insert into question (question_id, description) values (700, 'Legacy question')");
+        jdbcTemplate.update("insert into options (answer_id, question_id, \"value\") values (900, 700, 'Yes')");
+        jdbcTemplate.update("insert into set_question_map (set_id, question_id) values (500, 700)");
+
+        seeder.afterSingletonsInstantiated();
+        // Seeding again leaves sequences that are already ahead alone
+        seeder.afterSingletonsInstantiated();
+
+        Answer answer = new Answer();
+        answer.setValue("No");
+        Question question = new Question();
+        question.setDescription("New question");
+        question.setAnswers(List.of(answer));
+        answer.setQuestion(question);
+        Assessment assessment = new Assessment();
+        assessment.setSetName("New");
+        assessment.setStatus(SetStatus.PENDING);
+        assessment.setQuestions(List.of(question));
+        Assessment saved = assessmentRepository.save(assessment);
+
+        assertTrue(saved.getSetid() > 500, "setid " + saved.getSetid());
+        assertTrue(saved.getQuestions().get(0).getQuestionId() > 700);
+        assertTrue(saved.getQuestions().get(0).getAnswers().get(0).getAnswerId() > 900);
+        assertEquals(2, assessmentRepository.count());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.AssessmentService.Repo;
+
+import com.example.AssessmentService.dto.AnswerDTO;
+import com.example.AssessmentService.dto.AssessmentDTO;
+import com.example.AssessmentService.dto.QuestionRequest;
+import com.example.AssessmentService.model.Assessment;
+import com.example.AssessmentService.model.Question;
+import com.example.AssessmentService.repo.AssessmentRepository;
+import com.example.AssessmentService.service.AssessmentService;
+import com.example.AssessmentService.service.QuestionSearchIndex;
+import com.example.AssessmentService.service.QuestionSetCache;
+import com.example.AssessmentService.utils.AssessmentUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Repeats the same reads with a cold and a warm second-level cache. Runs without
+ * a test transaction so that writes commit and populate the cache as in production.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({AssessmentService.class, AssessmentUtil.class, QuestionSetCache.class, QuestionSearchIndex.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private AssessmentService assessmentService;
+
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAll();
+    }
+
+    @Test
+    void repeatedSetReadsAreServedFromCache() {
+        long setid = assessmentService.createAssessment(assessment("Cached Set", 10)).getSetid();
+
+        long cold = statementsFor(() -> answerCount(setid));
+        long warm = statementsFor(() -> answerCount(setid));
+
+        assertTrue(cold > 0);
+        assertEquals(0, warm);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+    }
+
+    @Test
+    void repeatedQuestionReadsAreServedFromCache() {
+        long setid = assessmentService.createAssessment(assessment("Cached Question Set", 1)).getSetid();
+        long questionId = assessmentService.getQuestionsSetId(setid).get(0).getQuestionId();
+
+        long cold = statementsFor(() -> inTransaction(() -> assessmentService.fetchques(questionId).orElseThrow().getAnswers().size()));
+        long warm = statementsFor(() -> inTransaction(() -> assessmentService.fetchques(questionId).orElseThrow().getAnswers().size()));
+
+        assertTrue(cold > 0);
+        assertEquals(0, warm);
+    }
+
+    @Test
+    void updateQuestionInvalidatesCachedAnswers() {
+        long setid = assessmentService.createAssessment(assessment("Updated Cached Set", 2)).getSetid();
+        long questionId = assessmentService.getQuestionsSetId(setid).get(0).getQuestionId();
+        assertEquals(2 * 2, answerCount(setid));
+
+        inTransaction(() -> assessmentService.updateQuestion(setid, questionId, List.of(new AnswerDTO("Maybe", "Decide soon"))));
+
+        assertEquals(2 * 2 + 1, answerCount(setid));
+        assertEquals(3, inTransaction(() -> assessmentService.fetchques(questionId).orElseThrow().getAnswers().size()));
+    }
+
+    @Test
+    void deleteQuestionEvictsOnlyThatSet() {
+        long setid = assessmentService.createAssessment(assessment("Trimmed Set", 2)).getSetid();
+        long otherSetid = assessmentService.createAssessment(assessment("Untouched Set", 2)).getSetid();
+        long questionId = assessmentService.getQuestionsSetId(setid).get(0).getQuestionId();
+        answerCount(setid);
+        answerCount(otherSetid);
+
+        inTransaction(() -> assessmentService.deleteQuestion(setid, questionId));
+
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertTrue(cache.containsEntity(Assessment.class, otherSetid));
+        assertTrue(cache.containsEntity(Assessment.class, setid));
+        assertEquals(2, answerCount(setid));
+    }
+
+    private int answerCount(long setid) {
+        return inTransaction(() -> {
+            Assessment assessment = assessmentRepository.findBySetid(setid).orElseThrow();
+            int answers = 0;
+            for (Question question : assessment.getQuestions())
+                answers += question.getAnswers().size();
+            return answers;
+        });
+    }
+
+    private <T> T inTransaction(Supplier<T> call) {
+        return new TransactionTemplate(transactionManager).execute(status -> call.get());
+    }
+
+    private long statementsFor(Supplier<Object> call) {
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private AssessmentDTO assessment(String setName, int questionCount) {
+        List<QuestionRequest> questions = new ArrayList<>();
+        for (int i = 0; i < questionCount; i++) {
+            QuestionRequest question = new QuestionRequest();
+            question.setDescription("Question " + i);
+            question.setAnswers(List.of(
+                    new AnswerDTO("Yes", "Keep going"),
+                    new AnswerDTO("No", "Start now")));
+            questions.add(question);
+        }
+        AssessmentDTO dto = new AssessmentDTO();
+        dto.setSetName(setName);
+        dto.setDomain("Test Domain");
+        dto.setQuestions(questions);
+        return dto;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.AssessmentService.Service;
+
+import com.example.AssessmentService.dto.BulkImportResult;
+import com.example.AssessmentService.repo.AssessmentRepository;
+import com.example.AssessmentService.service.AssessmentImportService;
+import com.example.AssessmentService.service.QuestionSearchIndex;
+import com.example.AssessmentService.service.QuestionSetCache;
+import com.example.AssessmentService.utils.AssessmentUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "assessment.import.chunk-size=10"
+})
+@Import({AssessmentImportService.class, AssessmentUtil.class, QuestionSetCache.class, QuestionSearchIndex.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AssessmentImportServiceTest {
+
+    @Autowired
+    private AssessmentImportService importService;
+
+    @Autowired
+    private AssessmentRepository assessmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testImportAssessments_BatchesInserts() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BulkImportResult> results = importService.importAssessments(json(sets("Batch", 20, 10)));
+
+        assertEquals(20, results.size());
+        assertTrue(results.stream().allMatch(BulkImportResult::isCreated));
+        assertTrue(results.stream().allMatch(result -> result.getSetid() != null));
+        assertEquals(20 * (1 + 10 + 20), statistics.getEntityInsertCount());
+        // 20 sets, 200 questions and 400 answers go out in a few dozen statements
+        assertTrue(statistics.getPrepareStatementCount() < 100,
+                "expected batched inserts but saw " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void testImportAssessments_ReportsFailedSets() throws Exception {
+        String body = "[" + set("Duplicate", 1) + "," + set("Unique", 1) + "," + set("Duplicate", 1) + "," + set("", 1) + "]";
+
+        List<BulkImportResult> results = importService.importAssessments(json(body));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isCreated());
+        assertTrue(results.get(1).isCreated());
+        assertFalse(results.get(2).isCreated());
+        assertEquals("set already exists", results.get(2).getMessage());
+        assertFalse(results.get(3).isCreated());
+        assertTrue(assessmentRepository.findBySetName("Unique").isPresent());
+    }
+
+    @Test
+    void testImportAssessments_ReportsNonObjectElementsInPlace() throws Exception {
+        String body = "[" + set("Before", 1) + ",42,[\"nested\"]," + set("After", 1) + "]";
+
+        List<BulkImportResult> results = importService.importAssessments(json(body));
+
+        assertEquals(4, results.size());
+        assertEquals("Before", results.get(0).getSetName());
+        assertTrue(results.get(0).isCreated());
+        assertFalse(results.get(1).isCreated());
+        assertEquals("element 1 is not an assessment object", results.get(1).getMessage());
+        assertEquals("element 2 is not an assessment object", results.get(2).getMessage());
+        assertEquals("After", results.get(3).getSetName());
+        assertTrue(results.get(3).isCreated());
+    }
+
+    @Test
+    void testImportAssessments_RejectsTruncatedArray() {
+        assertThrows(JsonProcessingException.class, () -> importService.importAssessments(json("[" + set("Truncated", 1))));
+    }
+
+    @Test
+    void testImportAssessments_RejectsNonArray() {
+        assertThrows(MismatchedInputException.class, () -> importService.importAssessments(json(set("Single", 1))));
+    }
+
+    private ByteArrayInputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String sets(String prefix, int sets, int questions) {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < sets; i++) {
+            if (i > 0)
+                body.append(',');
+            body.append(set(prefix + " " + i, questions));
+        }
+        return body.append(']').toString();
+    }
+
+    private String set(String setName, int questions) {
+        StringBuilder body = new StringBuilder("{\"setName\":\"" + setName + "\",\"domain\":\"Test\",\"questions\":[");
+        for (int i = 0; i < questions; i++) {
+            if (i > 0)
+                body.append(',');
+            body.append("{\"description\":\"Question ").append(i).append("\",\"answers\":[")
+                    .append("{\"value\":\"Yes\",\"suggestion\":\"Keep going\"},")
+                    .append("{\"value\":\"No\",\"suggestion\":\"Start now\"}]}");
+        }
+        return body.append("]}").toString();
+    }
+}
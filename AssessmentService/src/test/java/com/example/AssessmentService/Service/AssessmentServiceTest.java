@@ -3,24 +3,42 @@ package com.example.AssessmentService.Service;
 
 import com.example.AssessmentService.dto.AnswerDTO;
 import com.example.AssessmentService.dto.AssessmentDTO;
+import com.example.AssessmentService.dto.AssessmentPage;
+import com.example.AssessmentService.dto.AssessmentSummary;
+import com.example.AssessmentService.dto.QuestionSet;
+import com.example.AssessmentService.dto.QuestionSnapshot;
+import com.example.AssessmentService.dto.SetPayload;
 import com.example.AssessmentService.exception.ResourceNotFoundException;
 import com.example.AssessmentService.model.Answer;
 import com.example.AssessmentService.model.Assessment;
 import com.example.AssessmentService.model.Question;
+import com.example.AssessmentService.model.SetStatus;
+import com.example.AssessmentService.repo.AnswerRepository;
 import com.example.AssessmentService.repo.AssessmentRepository;
 import com.example.AssessmentService.repo.QuestionRepository;
 import com.example.AssessmentService.service.AssessmentService;
+import com.example.AssessmentService.service.QuestionSearchIndex;
+import com.example.AssessmentService.service.QuestionSetCache;
 import com.example.AssessmentService.utils.AssessmentUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,9 +53,27 @@ public class AssessmentServiceTest {
     @Mock
     private QuestionRepository questionRepository;
 
+    @Mock
+    private AnswerRepository answerRepository;
+
     @Mock
     private AssessmentUtil assessmentUtil;
 
+    @Mock
+    private QuestionSetCache questionSetCache;
+
+    @Mock
+    private QuestionSearchIndex questionSearchIndex;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionFactory sessionFactory;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private AssessmentService assessmentService;
 
@@ -84,58 +120,79 @@ public class AssessmentServiceTest {
         assertNotNull(createdAssessment);
         assertEquals("Test Set", createdAssessment.getSetName());
         verify(assessmentRepository, times(1)).save(assessment);
+        verify(questionSearchIndex, times(1)).index(eq(1L), anyList());
     }
 
     @Test
     void testUpdateQuestion_Success() {
-        when(assessmentRepository.findById(1L)).thenReturn(Optional.of(assessment));
-        when(questionRepository.save(any(Question.class))).thenReturn(question);
+        when(assessmentRepository.countQuestionInSet(1L, 1L)).thenReturn(1L);
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
 
         String result = assessmentService.updateQuestion(1L, 1L, answerDTOs);
 
         assertEquals("Question updated successfully", result);
-        verify(assessmentRepository, times(1)).findById(1L);
-        verify(questionRepository, times(1)).save(any(Question.class));
+        verify(assessmentRepository, never()).findById(anyLong());
+        verify(answerRepository, times(1)).saveAll(anyList());
+        verify(questionSetCache, times(1)).evict(1L);
+        verify(questionSearchIndex, times(1)).addAnswers(1L, answerDTOs);
     }
 
     @Test
     void testUpdateQuestion_AssessmentNotFound() {
-        when(assessmentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(assessmentRepository.existsById(1L)).thenReturn(false);
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
                 assessmentService.updateQuestion(1L, 1L, answerDTOs));
 
         assertEquals("Set name is invalid", exception.getMessage());
-        verify(assessmentRepository, times(1)).findById(1L);
+        verify(assessmentRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void testUpdateQuestion_QuestionNotInSet() {
+        when(assessmentRepository.existsById(1L)).thenReturn(true);
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
+                assessmentService.updateQuestion(1L, 2L, answerDTOs));
+
+        assertEquals("Question id is invalid", exception.getMessage());
+        verify(answerRepository, never()).saveAll(anyList());
     }
 
     @Test
     void testDeleteQuestion_Success() {
-        when(assessmentRepository.findById(1L)).thenReturn(Optional.of(assessment));
+        when(assessmentRepository.countQuestionInSet(1L, 1L)).thenReturn(1L);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
 
         String message = assessmentService.deleteQuestion(1L, 1L).get("message");
 
         assertEquals("Question deleted successfully", message);
-        verify(questionRepository, times(1)).deleteById(1L);
-        verify(assessmentRepository, times(1)).save(any(Assessment.class));
+        verify(assessmentRepository, times(1)).removeQuestionFromSet(1L, 1L);
+        verify(answerRepository, times(1)).deleteByQuestionId(1L);
+        verify(questionRepository, times(1)).deleteByIdDirect(1L);
+        verify(assessmentRepository, never()).findById(anyLong());
+        verify(questionSetCache, times(1)).evict(1L);
+        verify(sessionFactory.getCache(), times(1)).evictCollectionData(Assessment.class.getName() + ".questions", 1L);
+        verify(questionSearchIndex, times(1)).remove(1L);
     }
 
     @Test
     void testDeleteQuestion_AssessmentNotFound() {
-        when(assessmentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(assessmentRepository.existsById(1L)).thenReturn(false);
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
                 assessmentService.deleteQuestion(1L, 1L));
 
         assertEquals("Set name is invalid", exception.getMessage());
-        verify(assessmentRepository, times(1)).findById(1L);
+        verify(assessmentRepository, times(1)).existsById(1L);
+        verify(questionRepository, never()).deleteByIdDirect(anyLong());
     }
 
     @Test
     void testGetQuestionsBySetName_Success() {
         when(assessmentRepository.findBySetName("Test Set")).thenReturn(Optional.of(assessment));
 
-        List<Question> questions = assessmentService.getQuestionsSetName("Test Set");
+        List<QuestionSnapshot> questions = assessmentService.getQuestionsSetName("Test Set");
 
         assertNotNull(questions);
         assertEquals(1, questions.size());
@@ -157,7 +214,7 @@ public class AssessmentServiceTest {
     void testGetQuestionsBySetId_Success() {
         when(assessmentRepository.findBySetid(1L)).thenReturn(Optional.of(assessment));
 
-        List<Question> questions = assessmentService.getQuestionsSetId(1L);
+        List<QuestionSnapshot> questions = assessmentService.getQuestionsSetId(1L);
 
         assertNotNull(questions);
         assertEquals(1, questions.size());
@@ -174,4 +231,139 @@ public class AssessmentServiceTest {
         assertEquals("set id is invalid", exception.getMessage());
         verify(assessmentRepository, times(1)).findBySetid(1L);
     }
+
+    @Test
+    void testGetQuestionsBySetIds_Success() {
+        when(assessmentRepository.findWithQuestionsBySetidIn(Arrays.asList(1L, 2L)))
+                .thenReturn(Collections.singletonList(assessment));
+
+        Map<Long, List<QuestionSnapshot>> sets = assessmentService.getQuestionsSetIds(Arrays.asList(1L, 2L));
+
+        assertEquals(1, sets.size());
+        assertEquals(1, sets.get(1L).size());
+        assertFalse(sets.containsKey(2L));
+        verify(questionRepository, times(1)).fetchAnswers(assessment.getQuestions());
+    }
+
+    @Test
+    void testGetQuestionsBySetIds_Empty() {
+        Map<Long, List<QuestionSnapshot>> sets = assessmentService.getQuestionsSetIds(Collections.emptyList());
+
+        assertTrue(sets.isEmpty());
+        verify(assessmentRepository, never()).findWithQuestionsBySetidIn(any());
+    }
+
+    @Test
+    void testGetQuestionsBySetId_CacheMissPopulatesCache() {
+        when(assessmentRepository.findBySetid(1L)).thenReturn(Optional.of(assessment));
+
+        List<QuestionSnapshot> questions = assessmentService.getQuestionsSetId(1L);
+
+        assertEquals("Sample Question", questions.get(0).getDescription());
+        assertTrue(questions.get(0).getAnswers().isEmpty());
+        verify(questionSetCache, times(1)).put(any(QuestionSet.class));
+    }
+
+    @Test
+    void testGetQuestionsBySetId_CacheHitSkipsRepository() {
+        when(questionSetCache.getBySetid(1L)).thenReturn(QuestionSet.of(assessment));
+
+        List<QuestionSnapshot> questions = assessmentService.getQuestionsSetId(1L);
+
+        assertEquals(1, questions.size());
+        verify(assessmentRepository, never()).findBySetid(anyLong());
+    }
+
+    @Test
+    void testGetQuestionsBySetName_CacheHitSkipsRepository() {
+        when(questionSetCache.getBySetName("Test Set")).thenReturn(QuestionSet.of(assessment));
+
+        List<QuestionSnapshot> questions = assessmentService.getQuestionsSetName("Test Set");
+
+        assertEquals(1, questions.size());
+        verify(assessmentRepository, never()).findBySetName(anyString());
+    }
+
+    @Test
+    void testGetQuestionsBySetIds_LoadsOnlyMisses() {
+        when(questionSetCache.getBySetid(1L)).thenReturn(QuestionSet.of(assessment));
+
+        assessmentService.getQuestionsSetIds(Arrays.asList(1L, 2L));
+
+        verify(assessmentRepository, times(1)).findWithQuestionsBySetidIn(List.of(2L));
+    }
+
+    @Test
+    void testGetApprovedSetPayload_RendersApprovedSet() {
+        assessment.setStatus(SetStatus.APPROVED);
+        when(assessmentRepository.findBySetid(1L)).thenReturn(Optional.of(assessment));
+
+        SetPayload payload = assessmentService.getApprovedSetPayload(1L);
+
+        assertNotNull(payload);
+        assertTrue(new String(payload.getJson()).contains("Sample Question"));
+        assertTrue(payload.getEtag().startsWith("\""));
+        verify(questionSetCache, times(1)).putPayload(1L, payload);
+    }
+
+    @Test
+    void testGetApprovedSetPayload_PendingSetIsNotRendered() {
+        assessment.setStatus(SetStatus.PENDING);
+        when(assessmentRepository.findBySetid(1L)).thenReturn(Optional.of(assessment));
+
+        assertNull(assessmentService.getApprovedSetPayload(1L));
+        verify(questionSetCache, never()).putPayload(anyLong(), any());
+    }
+
+    @Test
+    void testApproveSet_DropsCachedSetAndPayload() {
+        assessment.setStatus(SetStatus.PENDING);
+        when(assessmentRepository.findById(1L)).thenReturn(Optional.of(assessment));
+
+        assertEquals("Set approved successfully", assessmentService.approveSet(1L, "reviewer"));
+
+        assertEquals(SetStatus.APPROVED, assessment.getStatus());
+        assertEquals("reviewer", assessment.getApprovedby());
+        verify(assessmentRepository, times(1)).save(assessment);
+        verify(questionSetCache, times(1)).evict(1L);
+    }
+
+    @Test
+    void testApproveSet_UnknownSet() {
+        when(assessmentRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> assessmentService.approveSet(1L, "reviewer"));
+        verify(questionSetCache, never()).evict(anyLong());
+    }
+
+    @Test
+    void testGetAssessmentPage_FullPageHasCursor() {
+        when(assessmentRepository.findSetidsAfter(null, PageRequest.of(0, 1))).thenReturn(List.of(1L));
+        when(assessmentRepository.findWithQuestionsBySetidIn(List.of(1L))).thenReturn(new ArrayList<>(List.of(assessment)));
+
+        AssessmentPage<Assessment> page = assessmentService.getAssessmentPage(null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(1L, page.getNextCursor());
+        verify(questionRepository, times(1)).fetchAnswers(assessment.getQuestions());
+    }
+
+    @Test
+    void testGetAssessmentSummaryPage_LastPageHasNoCursor() {
+        AssessmentSummary summary = new AssessmentSummary(2L, "Other Set", "Test Domain", null, null, null, SetStatus.PENDING);
+        when(assessmentRepository.findSummariesAfter(1L, PageRequest.of(0, 10))).thenReturn(List.of(summary));
+
+        AssessmentPage<AssessmentSummary> page = assessmentService.getAssessmentSummaryPage(1L, 10);
+
+        assertEquals(List.of(summary), page.getItems());
+        assertNull(page.getNextCursor());
+        verify(assessmentRepository, never()).findWithQuestionsBySetidIn(any());
+    }
+
+    @Test
+    void testGetAssessmentPage_SizeIsCapped() {
+        assessmentService.getAssessmentPage(null, 100_000);
+
+        verify(assessmentRepository, times(1)).findSetidsAfter(null, PageRequest.of(0, 200));
+    }
 }
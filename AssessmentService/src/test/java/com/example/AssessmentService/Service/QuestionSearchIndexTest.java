@@ -0,0 +1,66 @@
+package com.example.AssessmentService.Service;
+
+import com.example.AssessmentService.dto.AnswerDTO;
+import com.example.AssessmentService.dto.AnswerSnapshot;
+import com.example.AssessmentService.dto.QuestionSearchHit;
+import com.example.AssessmentService.dto.QuestionSnapshot;
+import com.example.AssessmentService.service.QuestionSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionSearchIndexTest {
+
+    private QuestionSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new QuestionSearchIndex();
+        index.index(1L, List.of(
+                question(10L, "Do you encrypt backups?", "Yes", "Rotate the encryption keys yearly"),
+                question(11L, "Is MFA enforced for admins?", "No", "Enforce MFA everywhere")));
+        index.index(2L, List.of(
+                question(20L, "Are backups tested?", "Sometimes", "Schedule restore drills")));
+    }
+
+    @Test
+    void testSearch_TokenMatchesDescriptionsAndAnswers() {
+        List<QuestionSearchHit> hits = index.search("backups", false, 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(List.of(1L, 2L), hits.stream().map(QuestionSearchHit::getSetid).sorted().toList());
+        assertEquals(List.of(11L), index.search("everywhere", false, 10).stream().map(QuestionSearchHit::getQuestionId).toList());
+    }
+
+    @Test
+    void testSearch_PrefixMatchesLongerTerms() {
+        assertTrue(index.search("encr", false, 10).isEmpty());
+        assertEquals(10L, index.search("encr", true, 10).get(0).getQuestionId());
+    }
+
+    @Test
+    void testSearch_RanksMoreMatchingTermsHigher() {
+        List<QuestionSearchHit> hits = index.search("encrypt backups", false, 10);
+
+        assertEquals(10L, hits.get(0).getQuestionId());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+        assertEquals(1, index.search("encrypt backups", false, 1).size());
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        index.addAnswers(20L, List.of(new AnswerDTO("Quarterly", "Automate the drills")));
+        assertEquals(20L, index.search("automate", false, 10).get(0).getQuestionId());
+
+        index.remove(10L);
+        assertTrue(index.search("encrypt", false, 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private QuestionSnapshot question(long questionId, String description, String value, String suggestion) {
+        return new QuestionSnapshot(questionId, description, List.of(new AnswerSnapshot(questionId * 10, value, suggestion)));
+    }
+}
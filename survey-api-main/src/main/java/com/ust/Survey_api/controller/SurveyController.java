@@ -1,22 +1,53 @@
 package com.ust.Survey_api.controller;
 
+import com.ust.Survey_api.exception.AssessmentUnavailableException;
+import com.ust.Survey_api.exception.InvalidResponseException;
+import com.ust.Survey_api.exception.RecipientNotFoundException;
 import com.ust.Survey_api.exception.SetNotFoundException;
+import com.ust.Survey_api.exception.SubmissionBufferFullException;
+import com.ust.Survey_api.feign.CompanyReport;
+import com.ust.Survey_api.feign.EmailUploadResult;
 import com.ust.Survey_api.feign.FullResponse;
 import com.ust.Survey_api.feign.PostDto;
+import com.ust.Survey_api.feign.RespondentReport;
+import com.ust.Survey_api.feign.ResponseSubmission;
 import com.ust.Survey_api.feign.SetNameDto;
+import com.ust.Survey_api.feign.SurveyPage;
+import com.ust.Survey_api.feign.SurveyProgress;
 import com.ust.Survey_api.feign.SurveyRequestDto;
+import com.ust.Survey_api.feign.SurveyResults;
 import com.ust.Survey_api.model.Emails;
 import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.SurveyFilter;
 import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.service.EmailImportService;
+import com.ust.Survey_api.service.ExportService;
+import com.ust.Survey_api.service.ReportService;
+import com.ust.Survey_api.service.ResponseIngestionService;
+import com.ust.Survey_api.service.ResponseTally;
+import com.ust.Survey_api.service.SurveyProgressService;
 import com.ust.Survey_api.service.SurveyService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE}, allowedHeaders = "*")
@@ -25,9 +56,33 @@ public class SurveyController {
     @Autowired
     private SurveyService surveyService;
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private SurveyRepository surveyRepository;
 
+    @Autowired
+    private EmailImportService emailImportService;
+
+    @Autowired
+    private ResponseIngestionService responseIngestionService;
+
+    @Autowired
+    private ResponseTally responseTally;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private SurveyProgressService progressService;
+
+    // Exports may stream for longer than the default async request timeout, which other async endpoints keep.
+    @Value("${survey.export.timeout:PT30M}")
+    private Duration exportTimeout = Duration.ofMinutes(30);
+
     @PostMapping("/survey")
     public ResponseEntity<PostDto> addSurvey(@RequestBody SurveyRequestDto survey) {
        PostDto surveyResponse = surveyService.addSurvey(survey);
@@ -37,18 +92,37 @@ public class SurveyController {
         return ResponseEntity.ok(surveyResponse);
     }
 
+    // ?fields=... lists the parts the caller needs; setdata is only loaded when listed (or when fields is absent).
     @GetMapping("/surveys")
-    public ResponseEntity<List<FullResponse>> getSurveys() {
-        return ResponseEntity.ok(surveyService.getSurveys());
+    public ResponseEntity<List<FullResponse>> getSurveys(@RequestParam(required = false) List<String> fields) {
+        return ResponseEntity.ok(surveyService.getSurveys(includesSetdata(fields)));
+    }
+
+    // Keyset page: pass nextCursor back as after. Filters are optional and combine with AND.
+    @GetMapping(value = "/surveys", params = "size")
+    public ResponseEntity<SurveyPage> getSurveyPage(@RequestParam(required = false) Long after,
+                                                    @RequestParam int size,
+                                                    @RequestParam(required = false) String companyName,
+                                                    @RequestParam(required = false) String requestor,
+                                                    @RequestParam(required = false) Long setid,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+                                                    @RequestParam(required = false) List<String> fields) {
+        SurveyFilter filter = new SurveyFilter(companyName, requestor, setid, createdFrom, createdTo);
+        return ResponseEntity.ok(surveyService.getSurveyPage(filter, after, size, includesSetdata(fields)));
     }
 
     @GetMapping("/survey/surveyId/{surveyid}")
-    public ResponseEntity<?> getSurveyById(@PathVariable Long surveyid) {
-        FullResponse surveyOptional = surveyService.getSurveyById(surveyid);
+    public ResponseEntity<?> getSurveyById(@PathVariable Long surveyid, @RequestParam(required = false) List<String> fields) {
+        FullResponse surveyOptional = surveyService.getSurveyById(surveyid, includesSetdata(fields));
         if(surveyOptional == null){
             throw new SetNotFoundException("Invalid surveyId");
         }
-        return ResponseEntity.ok(surveyService.getSurveyById(surveyid));
+        return ResponseEntity.ok(surveyOptional);
+    }
+
+    private static boolean includesSetdata(List<String> fields) {
+        return fields == null || fields.stream().anyMatch(field -> field.trim().equalsIgnoreCase("setdata"));
     }
 
 
@@ -61,6 +135,19 @@ public class SurveyController {
         return ResponseEntity.ok(surveyService.addEmails(surveyid, emails));
     }
 
+    // Bulk recipients as CSV (text/csv or text/plain, address in the first column) or NDJSON, streamed, not buffered.
+    @PostMapping(value = "/survey/{surveyid}/emails/upload", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, NDJSON})
+    public ResponseEntity<EmailUploadResult> uploadEmails(@PathVariable Long surveyid,
+                                                          @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream emails) throws IOException {
+        Survey survey = surveyRepository.findBySurveyid(surveyid);
+        if (survey == null) {
+            throw new SetNotFoundException(" surveyId not found");
+        }
+        boolean ndjson = contentType.startsWith(NDJSON);
+        return ResponseEntity.ok(emailImportService.importEmails(surveyid, emails, ndjson));
+    }
+
     @GetMapping("/survey/{surveyid}/emails")
     public ResponseEntity<List<Emails>> getEmails(@PathVariable Long surveyid) {
         Survey survey = surveyRepository.findBySurveyid(surveyid);
@@ -70,10 +157,112 @@ public class SurveyController {
         return ResponseEntity.ok(surveyService.getEmails(surveyid));
     }
 
+    // Recipients per status from the progress counters; the survey is only looked up when nothing was counted.
+    @GetMapping("/survey/{surveyid}/progress")
+    public ResponseEntity<SurveyProgress> getProgress(@PathVariable Long surveyid) {
+        SurveyProgress progress = progressService.progress(surveyid);
+        if (progress.getTotal() == 0 && surveyRepository.findBySurveyid(surveyid) == null) {
+            throw new SetNotFoundException("surveyId not found");
+        }
+        return ResponseEntity.ok(progress);
+    }
+
+    // Answers a request once the group commit holding it is written; 409 when the recipient already responded.
+    @PostMapping("/survey/{surveyid}/responses")
+    public CompletableFuture<ResponseEntity<String>> submitResponse(@PathVariable Long surveyid, @RequestBody ResponseSubmission submission) {
+        return responseIngestionService.submit(surveyid, submission).thenApply(accepted -> accepted
+                ? ResponseEntity.status(HttpStatus.CREATED).body("Response recorded.")
+                : ResponseEntity.status(HttpStatus.CONFLICT).body("Response already submitted."));
+    }
+
+    // Live counts per question and answer, served from memory.
+    @GetMapping("/survey/{surveyid}/results")
+    public ResponseEntity<SurveyResults> getResults(@PathVariable Long surveyid) {
+        Survey survey = surveyRepository.findBySurveyid(surveyid);
+        if (survey == null) {
+            throw new SetNotFoundException("surveyId not found");
+        }
+        return ResponseEntity.ok(new SurveyResults(surveyid, responseTally.results(surveyid)));
+    }
+
+    // Each respondent's chosen answers with their suggestions.
+    @GetMapping("/survey/{surveyid}/report")
+    public ResponseEntity<List<RespondentReport>> getRespondentReports(@PathVariable Long surveyid) {
+        return ResponseEntity.ok(reportService.respondentReports(surveyid));
+    }
+
+    @GetMapping("/company/{companyName}/report")
+    public ResponseEntity<CompanyReport> getCompanyReport(@PathVariable String companyName) {
+        return ResponseEntity.ok(reportService.companyReport(companyName));
+    }
+
+    // Streaming exports: ?format=csv (default) or ndjson, ?gzip=true to compress the body.
+    @GetMapping("/survey/{surveyid}/emails/export")
+    public ResponseEntity<StreamingResponseBody> exportEmails(@PathVariable Long surveyid,
+                                                              @RequestParam(defaultValue = "csv") String format,
+                                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                                              HttpServletRequest request) {
+        ExportService.Format exportFormat = exportFormat(surveyid, format);
+        return export(request, "survey-" + surveyid + "-recipients", exportFormat, gzip,
+                out -> exportService.exportRecipients(surveyid, exportFormat, gzip, out));
+    }
+
+    @GetMapping("/survey/{surveyid}/responses/export")
+    public ResponseEntity<StreamingResponseBody> exportResponses(@PathVariable Long surveyid,
+                                                                 @RequestParam(defaultValue = "csv") String format,
+                                                                 @RequestParam(defaultValue = "false") boolean gzip,
+                                                                 HttpServletRequest request) {
+        ExportService.Format exportFormat = exportFormat(surveyid, format);
+        return export(request, "survey-" + surveyid + "-responses", exportFormat, gzip,
+                out -> exportService.exportResponses(surveyid, exportFormat, gzip, out));
+    }
+
+    private ExportService.Format exportFormat(Long surveyid, String format) {
+        Survey survey = surveyRepository.findBySurveyid(surveyid);
+        if (survey == null) {
+            throw new SetNotFoundException("surveyId not found");
+        }
+        return ExportService.Format.of(format);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(HttpServletRequest request, String name, ExportService.Format format,
+                                                         boolean gzip, StreamingResponseBody body) {
+        // The body is streamed on an async dispatch that starts after this returns and keeps this timeout.
+        AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncRequest != null)
+            asyncRequest.setTimeout(exportTimeout.toMillis());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.extension + "\"");
+        if (gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
 
     @ExceptionHandler(SetNotFoundException.class)
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<String> handleNotFoundException(SetNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.OK).body(ex.getMessage());
     }
+
+    @ExceptionHandler(AssessmentUnavailableException.class)
+    public ResponseEntity<String> handleAssessmentUnavailable(AssessmentUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidResponseException.class)
+    public ResponseEntity<String> handleInvalidResponse(InvalidResponseException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(RecipientNotFoundException.class)
+    public ResponseEntity<String> handleRecipientNotFound(RecipientNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(SubmissionBufferFullException.class)
+    public ResponseEntity<String> handleSubmissionBufferFull(SubmissionBufferFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(ex.getMessage());
+    }
 }
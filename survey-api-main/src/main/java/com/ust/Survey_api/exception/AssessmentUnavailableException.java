@@ -0,0 +1,8 @@
+package com.ust.Survey_api.exception;
+
+// AssessmentService could not be reached (down, too slow, or shed by the circuit breaker or bulkhead).
+public class AssessmentUnavailableException extends RuntimeException {
+    public AssessmentUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ust.Survey_api.exception;
+
+// A survey response is malformed: no email, no answers, or an answer without a question or answer id.
+public class InvalidResponseException extends RuntimeException {
+    public InvalidResponseException(String message) {
+        super(message);
+    }
+}
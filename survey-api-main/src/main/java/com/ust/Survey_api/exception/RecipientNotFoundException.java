@@ -0,0 +1,8 @@
+package com.ust.Survey_api.exception;
+
+// The responding email is not a recipient of the survey, or the survey is closed.
+public class RecipientNotFoundException extends RuntimeException {
+    public RecipientNotFoundException(String message) {
+        super(message);
+    }
+}
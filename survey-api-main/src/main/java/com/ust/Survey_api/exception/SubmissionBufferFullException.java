@@ -0,0 +1,8 @@
+package com.ust.Survey_api.exception;
+
+// More survey responses are waiting to be written than the submission buffer holds.
+public class SubmissionBufferFullException extends RuntimeException {
+    public SubmissionBufferFullException(String message) {
+        super(message);
+    }
+}
@@ -5,13 +5,22 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
-@FeignClient(name = "Assessment",url = "http://localhost:9000/")
+// Not primary: callers get CachingAssessmentClient, which delegates here on a miss.
+@FeignClient(name = "Assessment", url = "http://localhost:9000/", qualifiers = "remoteAssessmentClient", primary = false)
 public interface AssessmentClient {
 
      @GetMapping("/assessments/set-id/{setid}")
      public ResponseEntity<List<SetNameDto>> getSet(@PathVariable Long setid);
 
+     // Loads several sets in one round trip; unknown set ids are absent from the map.
+     @PostMapping("/assessments/set-ids")
+     public ResponseEntity<Map<Long, List<SetNameDto>>> getSets(@RequestBody Collection<Long> setids);
+
 }
@@ -0,0 +1,98 @@
+package com.ust.Survey_api.feign;
+
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to AssessmentService through a concurrency bulkhead and a circuit
+ * breaker, so a slow or failing AssessmentService costs callers a fast rejection
+ * instead of a request thread. Only outages count against the breaker: connection
+ * failures, 5xx responses and slow calls. 4xx responses and bodies that do not
+ * decode (AssessmentService answers an unknown set with a 200 and an error text)
+ * are answers about the set, and bulkhead rejections are not calls at all.
+ */
+@Slf4j
+@Component
+public class AssessmentClientGuard {
+
+    private static final String NAME = "assessment";
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final LongAdder rejected = new LongAdder();
+
+    public AssessmentClientGuard(@Value("${survey.assessment.breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                 @Value("${survey.assessment.breaker.slow-call-threshold:PT2S}") Duration slowCallThreshold,
+                                 @Value("${survey.assessment.breaker.sliding-window-size:20}") int slidingWindowSize,
+                                 @Value("${survey.assessment.breaker.open-duration:PT30S}") Duration openDuration,
+                                 @Value("${survey.assessment.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        CircuitBreakerRegistry breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(slidingWindowSize, 10))
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .recordException(AssessmentClientGuard::isUnavailable)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = breakers.circuitBreaker(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("AssessmentService circuit breaker {}", event.getStateTransition()));
+        bulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+        meterRegistry.ifAvailable(registry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakers).bindTo(registry);
+            TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+            FunctionCounter.builder("resilience4j.bulkhead.rejected.calls", rejected, LongAdder::sum)
+                    .tag("name", NAME)
+                    .register(registry);
+        });
+    }
+
+    public <T> T call(Supplier<T> call) {
+        return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, call)).get();
+    }
+
+    /** True when the failure says nothing about the set itself: AssessmentService was down, slow or shed. */
+    public static boolean isUnavailable(Throwable e) {
+        return e instanceof CallNotPermittedException
+                || e instanceof BulkheadFullException
+                || e instanceof RetryableException
+                || e instanceof FeignException.FeignServerException;
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker.getState();
+    }
+
+    public long rejectedCalls() {
+        return rejected.sum();
+    }
+}
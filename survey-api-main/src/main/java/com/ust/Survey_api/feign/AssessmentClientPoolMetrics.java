@@ -0,0 +1,23 @@
+package com.ust.Survey_api.feign;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Publishes httpcomponents.httpclient.pool.* gauges for the connection pool behind the Feign clients.
+@Configuration
+public class AssessmentClientPoolMetrics {
+
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> {
+            if (connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool)
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign", Tags.empty()).bindTo(registry);
+        };
+    }
+}
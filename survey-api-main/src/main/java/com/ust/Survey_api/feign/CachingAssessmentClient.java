@@ -0,0 +1,173 @@
+package com.ust.Survey_api.feign;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ust.Survey_api.exception.AssessmentUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps set data in a bounded local cache so survey reads do not wait on
+ * AssessmentService for sets they have already seen. An entry older than the
+ * refresh interval is still served while it is reloaded in the background; if
+ * the reload fails the old data stays until the hard TTL. Single-set calls to
+ * AssessmentService go through a {@link SingleFlight}, so a miss, a background
+ * refresh and an evict-then-reload for the same setid share one request.
+ * <p>
+ * Remote calls run inside {@link AssessmentClientGuard}. When AssessmentService is
+ * unavailable the last data successfully loaded for a set is served instead, even
+ * past the TTL; only a set that was never loaded fails with
+ * {@link AssessmentUnavailableException}.
+ */
+@Primary
+@Component
+public class CachingAssessmentClient implements AssessmentClient {
+
+    private static final int REFRESH_THREADS = 2;
+
+    private final AssessmentClient remote;
+    private final AssessmentClientGuard guard;
+    private final LoadingCache<Long, List<SetNameDto>> sets;
+    // Same list instances as the main cache, without expiry, kept for outages only.
+    private final Cache<Long, List<SetNameDto>> lastKnown;
+    private final LongAdder fallbacks = new LongAdder();
+    private final SingleFlight<Long, List<SetNameDto>> setCalls = new SingleFlight<>();
+    private final ExecutorService refreshPool = Executors.newFixedThreadPool(REFRESH_THREADS, r -> {
+        Thread t = new Thread(r, "set-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CachingAssessmentClient(@Qualifier("remoteAssessmentClient") AssessmentClient remote,
+                                   @Value("${survey.setdata.cache.max-size:10000}") long maxSize,
+                                   @Value("${survey.setdata.cache.ttl:PT30M}") Duration ttl,
+                                   @Value("${survey.setdata.cache.refresh-after:PT5M}") Duration refreshAfter,
+                                   AssessmentClientGuard guard,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this.remote = remote;
+        this.guard = guard;
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        this.sets = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(refreshAfter)
+                .executor(refreshPool)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public List<SetNameDto> load(Long setid) {
+                        return loadSet(setid);
+                    }
+
+                    @Override
+                    public Map<Long, List<SetNameDto>> loadAll(Set<? extends Long> setids) {
+                        return loadSets(setids);
+                    }
+                });
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, sets, "setData");
+            FunctionCounter.builder("setdata.remote.calls", setCalls, SingleFlight::callCount)
+                    .description("Single-set lookups that needed AssessmentService")
+                    .register(registry);
+            FunctionCounter.builder("setdata.remote.calls.collapsed", setCalls, SingleFlight::collapsedCount)
+                    .description("Single-set lookups that joined a call already in flight")
+                    .register(registry);
+            FunctionCounter.builder("setdata.fallbacks", fallbacks, LongAdder::sum)
+                    .description("Sets served from last known data while AssessmentService was unavailable")
+                    .register(registry);
+        });
+    }
+
+    @Override
+    public ResponseEntity<List<SetNameDto>> getSet(Long setid) {
+        return ResponseEntity.ok(sets.get(setid));
+    }
+
+    @Override
+    public ResponseEntity<Map<Long, List<SetNameDto>>> getSets(Collection<Long> setids) {
+        return ResponseEntity.ok(sets.getAll(setids));
+    }
+
+    private List<SetNameDto> loadSet(long setid) {
+        try {
+            List<SetNameDto> set = setCalls.execute(setid, () -> guard.call(() -> remote.getSet(setid).getBody()));
+            if (set != null)
+                lastKnown.put(setid, set);
+            return set;
+        } catch (RuntimeException e) {
+            if (!AssessmentClientGuard.isUnavailable(e))
+                throw e;
+            List<SetNameDto> last = lastKnown.getIfPresent(setid);
+            if (last == null)
+                throw new AssessmentUnavailableException("Set data is temporarily unavailable.", e);
+            fallbacks.increment();
+            return last;
+        }
+    }
+
+    private Map<Long, List<SetNameDto>> loadSets(Set<? extends Long> setids) {
+        try {
+            Map<Long, List<SetNameDto>> loaded = guard.call(() -> remote.getSets(List.copyOf(setids)).getBody());
+            if (loaded == null)
+                return Map.of();
+            lastKnown.putAll(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            if (!AssessmentClientGuard.isUnavailable(e))
+                throw e;
+            Map<Long, List<SetNameDto>> last = new HashMap<>(lastKnown.getAllPresent(setids));
+            if (last.isEmpty())
+                throw new AssessmentUnavailableException("Set data is temporarily unavailable.", e);
+            fallbacks.add(last.size());
+            return last;
+        }
+    }
+
+    public void evict(long setid) {
+        sets.invalidate(setid);
+    }
+
+    public long size() {
+        return sets.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return sets.stats();
+    }
+
+    public long collapsedCalls() {
+        return setCalls.collapsedCount();
+    }
+
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    @PreDestroy
+    void shutdownRefreshPool() {
+        refreshPool.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyRecommendation {
+    private Long questionId;
+    private String question;
+    private Long answerId;
+    private String answer;
+    private String suggestion;
+    // Recipients who picked this answer
+    private long respondents;
+}
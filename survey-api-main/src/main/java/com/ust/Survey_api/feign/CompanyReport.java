@@ -0,0 +1,17 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Suggestions across all of a company's surveys, most chosen first.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CompanyReport {
+    private String companyName;
+    private int surveys;
+    private List<CompanyRecommendation> recommendations;
+}
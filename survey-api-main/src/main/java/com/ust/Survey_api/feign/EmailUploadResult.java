@@ -0,0 +1,18 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Outcome of a bulk recipient upload; invalidSamples holds the first rejected lines, not all of them.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailUploadResult {
+    private long accepted;
+    private long duplicates;
+    private long invalid;
+    private List<String> invalidSamples;
+}
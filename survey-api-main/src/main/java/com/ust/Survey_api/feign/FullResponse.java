@@ -1,5 +1,6 @@
 package com.ust.Survey_api.feign;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.ust.Survey_api.model.Status;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,5 +21,7 @@ public class FullResponse {
     public Long setId;
     private LocalDate createdDate;
     private LocalDate expireDate;
+    // Absent from the JSON when the caller asked for fields without setdata.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public List<SetNameDto> setdata;
 }
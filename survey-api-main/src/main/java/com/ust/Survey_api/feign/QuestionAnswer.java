@@ -0,0 +1,13 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionAnswer {
+    private Long questionId;
+    private Long answerId;
+}
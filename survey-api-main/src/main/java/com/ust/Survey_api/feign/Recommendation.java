@@ -0,0 +1,17 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A chosen answer and its suggestion; question, answer and suggestion are null when the set no longer has the answer.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Recommendation {
+    private Long questionId;
+    private String question;
+    private Long answerId;
+    private String answer;
+    private String suggestion;
+}
@@ -0,0 +1,16 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RespondentReport {
+    private Long recipientId;
+    private String email;
+    private List<Recommendation> recommendations;
+}
@@ -0,0 +1,16 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A recipient's answers to a survey: one selected answerId per questionId.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResponseSubmission {
+    private String email;
+    private List<QuestionAnswer> answers;
+}
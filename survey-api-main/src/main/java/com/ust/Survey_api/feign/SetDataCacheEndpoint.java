@@ -0,0 +1,42 @@
+package com.ust.Survey_api.feign;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// GET /actuator/setdata shows the cache and circuit breaker state; DELETE /actuator/setdata/{setid} drops one set.
+@Component
+@Endpoint(id = "setdata")
+public class SetDataCacheEndpoint {
+
+    @Autowired
+    private CachingAssessmentClient cache;
+
+    @Autowired
+    private AssessmentClientGuard guard;
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "size", cache.size(),
+                "hitRate", stats.hitRate(),
+                "loadFailures", stats.loadFailureCount(),
+                "averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0,
+                "collapsedCalls", cache.collapsedCalls(),
+                "fallbacks", cache.fallbacks(),
+                "circuitBreaker", guard.state().name(),
+                "bulkheadRejections", guard.rejectedCalls());
+    }
+
+    @DeleteOperation
+    public void evict(@Selector long setid) {
+        cache.evict(setid);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated survey listing. Pass {@code nextCursor} as
+ * {@code after} to read the next page; it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurveyPage {
+    private List<FullResponse> items;
+    private Long nextCursor;
+}
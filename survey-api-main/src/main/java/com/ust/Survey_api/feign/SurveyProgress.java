@@ -0,0 +1,19 @@
+package com.ust.Survey_api.feign;
+
+import com.ust.Survey_api.model.Status;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+// Recipients of a survey per status, read from the progress counters; responseRate is COMPLETED / total.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurveyProgress {
+    private Long surveyid;
+    private Map<Status, Long> recipients;
+    private long total;
+    private double responseRate;
+}
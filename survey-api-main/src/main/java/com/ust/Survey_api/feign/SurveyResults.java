@@ -0,0 +1,16 @@
+package com.ust.Survey_api.feign;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+// Live answer counts of a survey: questionId -> answerId -> number of recipients who picked it.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurveyResults {
+    private Long surveyid;
+    private Map<Long, Map<Long, Long>> answers;
+}
@@ -0,0 +1,35 @@
+package com.ust.Survey_api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Summary of survey_response: how many recipients picked each answer. Written by ResponseTally in the transaction that stores the responses.
+@Data
+@Entity
+@Table(name = "survey_answer_tally")
+@IdClass(AnswerTally.Key.class)
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnswerTally {
+
+    @Id
+    private Long surveyid;
+    @Id
+    private Long questionId;
+    @Id
+    private Long answerId;
+    private long responses;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long surveyid;
+        private Long questionId;
+        private Long answerId;
+    }
+}
@@ -9,11 +9,18 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "surveyDetails")
+@Table(name = "surveyDetails", indexes = {
+        // Invitation dispatch claims PENDING rows that are due
+        @Index(name = "idx_survey_details_dispatch", columnList = "status, nextAttemptAt"),
+        // Response submissions look the recipient up by address; one row per address and survey
+        @Index(name = "idx_survey_details_recipient", columnList = "surveyid, email", unique = true)
+})
 public class Emails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,4 +31,12 @@ public class Emails {
     private String email;
     private Long surveyid;
     private Status status;
+    // Invitation send attempts so far
+    private Integer attempts;
+    // PENDING: earliest next send attempt (null means now); SENDING: when the claim lapses
+    private LocalDateTime nextAttemptAt;
+
+    public Emails(Long id, String email, Long surveyid, Status status) {
+        this(id, email, surveyid, status, null, null);
+    }
 }
@@ -0,0 +1,32 @@
+package com.ust.Survey_api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// How many of a survey's recipients are in each status. Written by SurveyProgressService, rebuilt by SurveyProgressReconciler.
+@Data
+@Entity
+@Table(name = "survey_progress")
+@IdClass(RecipientStatusCount.Key.class)
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipientStatusCount {
+
+    @Id
+    private Long surveyid;
+    @Id
+    private Status status;
+    private long recipients;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long surveyid;
+        private Status status;
+    }
+}
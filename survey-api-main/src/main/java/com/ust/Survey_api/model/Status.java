@@ -1,6 +1,15 @@
 package com.ust.Survey_api.model;
 
+// Stored by ordinal: append new values at the end.
 public enum Status {
     PENDING ,
-    APPROVED
+    APPROVED,
+    // Invitation dispatch: claimed by a dispatcher, delivered to the mail server, or given up after the last retry
+    SENDING,
+    SENT,
+    FAILED,
+    // Never sent before the survey expired
+    EXPIRED,
+    // Submitted their answers
+    COMPLETED
 }
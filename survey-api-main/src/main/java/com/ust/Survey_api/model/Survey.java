@@ -7,12 +7,22 @@ import lombok.NoArgsConstructor;
 
 import java.sql.Time;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "survey")
+// An equality filter on company, requestor or setid walks surveyid within its index;
+// the createdDate index narrows date ranges, which are then sorted by surveyid.
+@Table(name = "survey", indexes = {
+        @Index(name = "idx_survey_company_name", columnList = "companyName, surveyid"),
+        @Index(name = "idx_survey_requestor", columnList = "requestor, surveyid"),
+        @Index(name = "idx_survey_setid", columnList = "setid, surveyid"),
+        @Index(name = "idx_survey_created_date", columnList = "createdDate, surveyid"),
+        // The expiry sweep looks for open surveys past their expiry date
+        @Index(name = "idx_survey_expiry", columnList = "closedAt, expireDate")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Survey {
@@ -25,10 +35,17 @@ public class Survey {
     private String companyName;
     private Long setid;
     private LocalDate createdDate;
+    // Null for surveys created before expiry was stored; those never expire.
+    private LocalDate expireDate;
+    // Set by the expiry sweep; closed surveys are left out of listings.
+    private LocalDateTime closedAt;
 
     @OneToMany(cascade = CascadeType.ALL)
     @JoinColumn(name = "surveyid")
     private List<Emails> emails;
 
+    public Survey(Long surveyid, long id, String requestor, String companyName, Long setid, LocalDate createdDate, List<Emails> emails) {
+        this(surveyid, id, requestor, companyName, setid, createdDate, null, null, emails);
+    }
 
 }
@@ -0,0 +1,29 @@
+package com.ust.Survey_api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One selected answer of one recipient's submission. Rows are only ever inserted.
+@Data
+@Entity
+@Table(name = "survey_response", indexes = {
+        @Index(name = "idx_survey_response_survey", columnList = "surveyid, questionId")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurveyResponse {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long surveyid;
+    // surveyDetails id of the recipient who answered
+    private Long recipientId;
+    private Long questionId;
+    private Long answerId;
+    private LocalDateTime submittedAt;
+}
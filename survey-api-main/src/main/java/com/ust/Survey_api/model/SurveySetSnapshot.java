@@ -0,0 +1,60 @@
+package com.ust.Survey_api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The set content a survey was sent out with, stored as gzipped JSON next to the
+ * survey row so reads never go back to AssessmentService and later edits to the
+ * set do not change surveys that are already out.
+ */
+@Data
+@Entity
+@Table(name = "survey_set_snapshot")
+@NoArgsConstructor
+public class SurveySetSnapshot implements Persistable<Long> {
+
+    @Id
+    private Long surveyid;
+    private Long setid;
+    // Layout of data; bump when the encoding changes so old rows can still be read.
+    private int formatVersion;
+    @Column(length = 64)
+    private String contentHash;
+    @Lob
+    private byte[] data;
+    private LocalDateTime capturedAt;
+
+    // The id is the survey's, so Spring Data cannot tell a new snapshot from its id alone.
+    @Transient
+    private boolean persisted;
+
+    public SurveySetSnapshot(Long surveyid, Long setid, int formatVersion, String contentHash, byte[] data) {
+        this.surveyid = surveyid;
+        this.setid = setid;
+        this.formatVersion = formatVersion;
+        this.contentHash = contentHash;
+        this.data = data;
+        this.capturedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public Long getId() {
+        return surveyid;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
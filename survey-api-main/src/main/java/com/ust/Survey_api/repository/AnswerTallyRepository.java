@@ -0,0 +1,7 @@
+package com.ust.Survey_api.repository;
+
+import com.ust.Survey_api.model.AnswerTally;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AnswerTallyRepository extends JpaRepository<AnswerTally, AnswerTally.Key> {
+}
@@ -2,9 +2,14 @@ package com.ust.Survey_api.repository;
 
 import com.ust.Survey_api.model.Emails;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface EmailRepository extends JpaRepository<Emails,Long> {
     List<Emails> findBySurveyid(Long surveyid);
+
+    @Query("select e.email from Emails e where e.surveyid = :surveyid")
+    List<String> findEmailsBySurveyid(@Param("surveyid") Long surveyid);
 }
@@ -0,0 +1,10 @@
+package com.ust.Survey_api.repository;
+
+import com.ust.Survey_api.model.RecipientStatusCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RecipientStatusCountRepository extends JpaRepository<RecipientStatusCount, RecipientStatusCount.Key> {
+    List<RecipientStatusCount> findBySurveyid(Long surveyid);
+}
@@ -0,0 +1,47 @@
+package com.ust.Survey_api.repository;
+
+import com.ust.Survey_api.model.Survey;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters for survey listings; null fields do not restrict. A page
+ * filtered on one of companyName, requestor or setid alone is one range scan of
+ * that column's (column, surveyid) index, already in surveyid order. A created
+ * date range matches many index prefixes, so its rows are sorted by surveyid
+ * before the page is cut; with several filters the database uses one index and
+ * checks the rest row by row. Closed surveys are never listed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SurveyFilter {
+    private String companyName;
+    private String requestor;
+    private Long setid;
+    private LocalDate createdFrom;
+    private LocalDate createdTo;
+
+    public Specification<Survey> after(Long surveyid) {
+        return (root, query, cb) -> {
+            var predicates = cb.isNull(root.get("closedAt"));
+            if (surveyid != null)
+                predicates = cb.and(predicates, cb.greaterThan(root.get("surveyid"), surveyid));
+            if (companyName != null)
+                predicates = cb.and(predicates, cb.equal(root.get("companyName"), companyName));
+            if (requestor != null)
+                predicates = cb.and(predicates, cb.equal(root.get("requestor"), requestor));
+            if (setid != null)
+                predicates = cb.and(predicates, cb.equal(root.get("setid"), setid));
+            if (createdFrom != null)
+                predicates = cb.and(predicates, cb.greaterThanOrEqualTo(root.get("createdDate"), createdFrom));
+            if (createdTo != null)
+                predicates = cb.and(predicates, cb.lessThanOrEqualTo(root.get("createdDate"), createdTo));
+            return predicates;
+        };
+    }
+}
@@ -2,9 +2,16 @@ package com.ust.Survey_api.repository;
 
 import com.ust.Survey_api.model.Survey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface SurveyRepository extends JpaRepository<Survey,Long> {
+public interface SurveyRepository extends JpaRepository<Survey,Long>, JpaSpecificationExecutor<Survey> {
   Survey findBySurveyid(Long surveyid);
+
+  List<Survey> findByClosedAtIsNull();
+
+  List<Survey> findByCompanyName(String companyName);
 }
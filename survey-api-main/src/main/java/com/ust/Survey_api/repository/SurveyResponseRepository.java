@@ -0,0 +1,10 @@
+package com.ust.Survey_api.repository;
+
+import com.ust.Survey_api.model.SurveyResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SurveyResponseRepository extends JpaRepository<SurveyResponse, Long> {
+    List<SurveyResponse> findBySurveyid(Long surveyid);
+}
@@ -0,0 +1,17 @@
+package com.ust.Survey_api.repository;
+
+import com.ust.Survey_api.model.SurveySetSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SurveySetSnapshotRepository extends JpaRepository<SurveySetSnapshot, Long> {
+
+    // The set version of a survey, without loading the snapshot data
+    @Query("select s.contentHash from SurveySetSnapshot s where s.surveyid = :surveyid")
+    Optional<String> findContentHashBySurveyid(@Param("surveyid") Long surveyid);
+}
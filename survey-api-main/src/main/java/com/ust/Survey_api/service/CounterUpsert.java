@@ -0,0 +1,66 @@
+package com.ust.Survey_api.service;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Adds deltas to counter rows in the caller's transaction, creating the rows that
+ * do not exist yet. MySQL gets one batched insert ... on duplicate key update.
+ * Other databases (H2 in tests) get a standard merge per row; a merge that loses
+ * the race to create a row is repeated once, now updating it. A missing row is
+ * created under the caller's own locks, so there is no second connection or
+ * transaction to wait on.
+ */
+final class CounterUpsert {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sql;
+    private final boolean batched;
+
+    CounterUpsert(JdbcTemplate jdbcTemplate, String table, List<String> keys, String counter) {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        this.batched = "MySQL".equals(JdbcUtils.commonDatabaseName(product));
+        this.sql = batched ? mysql(table, keys, counter) : merge(table, keys, counter);
+    }
+
+    /** Uses the new-row alias (MySQL 8.0.19+); values() is deprecated since 8.0.20. */
+    static String mysql(String table, List<String> keys, String counter) {
+        return "insert into " + table + " (" + String.join(", ", keys) + ", " + counter + ") values ("
+                + String.join(", ", Collections.nCopies(keys.size() + 1, "?")) + ") as new"
+                + " on duplicate key update " + counter + " = " + table + "." + counter + " + new." + counter;
+    }
+
+    static String merge(String table, List<String> keys, String counter) {
+        String columns = String.join(", ", keys) + ", " + counter;
+        return "merge into " + table + " t using (values ("
+                + String.join(", ", Collections.nCopies(keys.size() + 1, "cast(? as bigint)")) + ")) s (" + columns + ")"
+                + " on " + keys.stream().map(key -> "t." + key + " = s." + key).collect(Collectors.joining(" and "))
+                + " when matched then update set " + counter + " = t." + counter + " + s." + counter
+                + " when not matched then insert (" + columns + ") values ("
+                + keys.stream().map(key -> "s." + key).collect(Collectors.joining(", ")) + ", s." + counter + ")";
+    }
+
+    /** Each row holds the key values in column order followed by the delta. */
+    void add(List<Object[]> rows) {
+        if (batched) {
+            if (!rows.isEmpty())
+                jdbcTemplate.batchUpdate(sql, rows);
+            return;
+        }
+        for (Object[] row : rows) {
+            try {
+                jdbcTemplate.update(sql, row);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(sql, row);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.ust.Survey_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ust.Survey_api.feign.EmailUploadResult;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.repository.EmailRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a recipient list (CSV, one address in the first column, or NDJSON of
+ * strings or {"email": ...} objects) into a survey. An NDJSON line that is not
+ * JSON counts as invalid without stopping the upload. Lines are read in chunks;
+ * each chunk is validated in parallel, de-duplicated against the survey's
+ * existing and already uploaded recipients, and written with one JDBC batch in
+ * its own transaction, so memory stays bounded by the chunk size plus the set
+ * of known addresses. Rows another upload inserted in the meantime are skipped
+ * by the batch and counted as duplicates.
+ */
+@Service
+public class EmailImportService {
+
+    // Concurrent uploads can both miss an address in their known set; the unique
+    // (surveyid, email) index settles it and the losing row is skipped. A merge
+    // cannot skip a row another transaction is still inserting, so elsewhere the
+    // uploads to one survey take turns on the survey row.
+    private static final String LOCK_SURVEY = "select surveyid from survey where surveyid = ? for update";
+    private static final String INSERT_EMAIL_MYSQL = "insert ignore into survey_details (email, surveyid, status) values (?, ?, ?)";
+    private static final String INSERT_EMAIL = "merge into survey_details t"
+            + " using (values (cast(? as varchar(255)), cast(? as bigint), cast(? as integer))) s (email, surveyid, status)"
+            + " on t.surveyid = s.surveyid and t.email = s.email"
+            + " when not matched then insert (email, surveyid, status) values (s.email, s.surveyid, s.status)";
+    private static final int INVALID_SAMPLES = 100;
+    private static final int MAX_EMAIL_LENGTH = 254;
+    private static final Pattern EMAIL = Pattern.compile(
+            "^[A-Za-z0-9.!#$%&'*+/=?^_`{|}~-]+@[A-Za-z0-9](?:[A-Za-z0-9-]{0,61}[A-Za-z0-9])?(?:\\.[A-Za-z0-9](?:[A-Za-z0-9-]{0,61}[A-Za-z0-9])?)+$");
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveyProgressService progressService;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper mapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final String insertEmail;
+
+    private final boolean lockSurvey;
+
+    @Value("${survey.emails.import.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    public EmailImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ObjectMapper mapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mapper = mapper;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        this.lockSurvey = !"MySQL".equals(JdbcUtils.commonDatabaseName(product));
+        this.insertEmail = lockSurvey ? INSERT_EMAIL : INSERT_EMAIL_MYSQL;
+    }
+
+    public EmailUploadResult importEmails(long surveyid, InputStream body, boolean ndjson) throws IOException {
+        Set<String> known = new HashSet<>();
+        for (String email : emailRepository.findEmailsBySurveyid(surveyid))
+            known.add(normalize(email));
+        EmailUploadResult result = new EmailUploadResult(0, 0, 0, new ArrayList<>());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<String> chunk = new ArrayList<>(chunkSize);
+        boolean firstLine = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String email;
+            try {
+                email = ndjson ? fromJson(line) : fromCsv(line);
+            } catch (JsonProcessingException e) {
+                invalid(result, line.trim());
+                continue;
+            }
+            if (firstLine && !ndjson && "email".equalsIgnoreCase(email))
+                continue; // header
+            firstLine = false;
+            if (email == null || email.isEmpty())
+                continue;
+            chunk.add(email);
+            if (chunk.size() == chunkSize) {
+                importChunk(surveyid, chunk, known, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty())
+            importChunk(surveyid, chunk, known, result);
+        return result;
+    }
+
+    private void importChunk(long surveyid, List<String> chunk, Set<String> known, EmailUploadResult result) {
+        List<Boolean> valid = chunk.parallelStream().map(EmailImportService::isValid).toList();
+        List<String> accepted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String email = chunk.get(i);
+            if (!valid.get(i)) {
+                invalid(result, email);
+            } else if (!known.add(normalize(email))) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            } else {
+                accepted.add(email);
+            }
+        }
+        if (accepted.isEmpty())
+            return;
+        int inserted = transactionTemplate.execute(status -> {
+            if (lockSurvey)
+                jdbcTemplate.queryForList(LOCK_SURVEY, Long.class, surveyid);
+            int[][] counts = jdbcTemplate.batchUpdate(insertEmail, accepted, accepted.size(), (ps, email) -> {
+                ps.setString(1, email);
+                ps.setLong(2, surveyid);
+                ps.setInt(3, Status.PENDING.ordinal());
+            });
+            int rows = 0;
+            for (int[] batch : counts)
+                for (int count : batch)
+                    if (count != 0)
+                        rows++;
+            if (rows > 0)
+                progressService.apply(new SurveyProgressService.Changes().add(surveyid, Status.PENDING, rows));
+            return rows;
+        });
+        result.setAccepted(result.getAccepted() + inserted);
+        result.setDuplicates(result.getDuplicates() + accepted.size() - inserted);
+    }
+
+    private static void invalid(EmailUploadResult result, String value) {
+        result.setInvalid(result.getInvalid() + 1);
+        if (result.getInvalidSamples().size() < INVALID_SAMPLES)
+            result.getInvalidSamples().add(value);
+    }
+
+    static boolean isValid(String email) {
+        return email.length() <= MAX_EMAIL_LENGTH && EMAIL.matcher(email).matches();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String fromCsv(String line) {
+        int comma = line.indexOf(',');
+        String value = (comma < 0 ? line : line.substring(0, comma)).trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\""))
+            value = value.substring(1, value.length() - 1).trim();
+        return value;
+    }
+
+    private String fromJson(String line) throws JsonProcessingException {
+        if (line.isBlank())
+            return null;
+        JsonNode node = mapper.readTree(line);
+        JsonNode email = node.isObject() ? node.get("email") : node;
+        return email == null || email.isNull() ? "" : email.asText().trim();
+    }
+}
@@ -0,0 +1,199 @@
+package com.ust.Survey_api.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.ust.Survey_api.exception.SetNotFoundException;
+import com.ust.Survey_api.model.Status;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams survey recipients and answers as CSV or NDJSON. Rows are read with a
+ * forward-only cursor and written to the output as they arrive, so memory use
+ * does not depend on the size of the survey. The MySQL driver only streams
+ * rows when the fetch size is Integer.MIN_VALUE; otherwise it reads the whole
+ * result into memory first.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new SetNotFoundException("Unknown export format " + name + "; use csv or ndjson.");
+            }
+        }
+    }
+
+    private static final String RECIPIENTS = "select id, email, status, attempts from survey_details where surveyid = ? order by id";
+    private static final String[] RECIPIENT_COLUMNS = {"id", "email", "status", "attempts"};
+    private static final String RESPONSES = "select r.recipient_id, d.email, r.question_id, r.answer_id, r.submitted_at"
+            + " from survey_response r join survey_details d on d.id = r.recipient_id"
+            + " where r.surveyid = ? order by r.recipient_id, r.question_id";
+    private static final String[] RESPONSE_COLUMNS = {"recipientId", "email", "questionId", "answerId", "submittedAt"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory json = new JsonFactory();
+
+    public ExportService(DataSource dataSource, @Value("${survey.export.fetch-size:-2147483648}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /** One row per recipient: id, email, status, attempts. */
+    public void exportRecipients(long surveyid, Format format, boolean gzip, OutputStream out) throws IOException {
+        export(RECIPIENTS, RECIPIENT_COLUMNS, surveyid, format, gzip, out, (rs, row) -> {
+            Status status = rs.getObject(3) == null ? null : Status.values()[rs.getInt(3)];
+            row[0] = rs.getLong(1);
+            row[1] = rs.getString(2);
+            row[2] = status == null ? null : status.name();
+            row[3] = rs.getObject(4) == null ? null : rs.getInt(4);
+        });
+    }
+
+    /** One row per chosen answer, grouped by respondent. */
+    public void exportResponses(long surveyid, Format format, boolean gzip, OutputStream out) throws IOException {
+        export(RESPONSES, RESPONSE_COLUMNS, surveyid, format, gzip, out, (rs, row) -> {
+            Timestamp submittedAt = rs.getTimestamp(5);
+            row[0] = rs.getLong(1);
+            row[1] = rs.getString(2);
+            row[2] = rs.getLong(3);
+            row[3] = rs.getLong(4);
+            row[4] = submittedAt == null ? null : submittedAt.toLocalDateTime().toString();
+        });
+    }
+
+    private interface RowReader {
+        void read(ResultSet rs, Object[] row) throws SQLException;
+    }
+
+    private void export(String sql, String[] columns, long surveyid, Format format, boolean gzip, OutputStream out,
+                        RowReader reader) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8), 64 * 1024);
+        RowSink sink = format == Format.CSV ? new CsvSink(writer, columns) : new NdjsonSink(json.createGenerator(writer), columns);
+        Object[] row = new Object[columns.length];
+        try {
+            jdbcTemplate.query(sql, rs -> {
+                reader.read(rs, row);
+                try {
+                    sink.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, surveyid);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        sink.finish();
+        writer.flush();
+        if (compressed != null)
+            compressed.finish();
+    }
+
+    private interface RowSink {
+        void write(Object[] row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+
+        CsvSink(Writer writer, String[] columns) throws IOException {
+            this.writer = writer;
+            write(columns);
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0)
+                    writer.write(',');
+                if (row[i] != null)
+                    writer.write(escape(row[i].toString()));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        // RFC 4180: quote fields holding a separator, quote or line break, doubling inner quotes.
+        static String escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r')
+                    return '"' + value.replace("\"", "\"\"") + '"';
+            }
+            return value;
+        }
+    }
+
+    private static final class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+        private final String[] columns;
+        private boolean empty = true;
+
+        NdjsonSink(JsonGenerator generator, String[] columns) {
+            this.generator = generator;
+            this.columns = columns;
+            generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                Object value = row[i];
+                if (value instanceof Long number)
+                    generator.writeNumberField(columns[i], number);
+                else if (value instanceof Integer number)
+                    generator.writeNumberField(columns[i], number);
+                else if (value == null)
+                    generator.writeNullField(columns[i]);
+                else
+                    generator.writeStringField(columns[i], value.toString());
+            }
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty)
+                generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.model.Status;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends survey invitations to PENDING recipients. The surveyDetails table is the
+ * work queue: each round claims a batch of due rows with FOR UPDATE SKIP LOCKED
+ * (so several instances can dispatch side by side) and marks them SENDING for a
+ * lease period. The batch is split into per-connection chunks that a bounded
+ * worker pool sends under a shared rate limit; the outcomes are written back in
+ * one JDBC batch. A failed recipient goes back to PENDING with exponential
+ * backoff until max-attempts, then to FAILED. Rows whose lease lapsed (the
+ * instance died mid-batch) are put back to PENDING. Every move is conditional
+ * on the status the dispatcher expects and is counted in the survey progress
+ * counters in the same transaction; an outcome for a row whose lease lapsed in
+ * the meantime is dropped, and the row is sent again.
+ */
+@Slf4j
+@Service
+public class InvitationDispatcher {
+
+    // Closed surveys are left to the expiry sweep. The survey check is a subquery
+    // rather than a join so the claim does not lock survey rows as well.
+    private static final String CLAIM = "select d.id, d.email, d.surveyid, d.attempts from survey_details d"
+            + " where d.status = ? and (d.next_attempt_at is null or d.next_attempt_at <= ?)"
+            + " and exists (select 1 from survey s where s.surveyid = d.surveyid and s.closed_at is null)"
+            + " order by d.id limit ? for update skip locked";
+    private static final String UPDATE = "update survey_details set status = ?, attempts = ?, next_attempt_at = ?"
+            + " where id = ? and status = ?";
+    private static final String FIND_LAPSED = "select id, surveyid from survey_details"
+            + " where status = ? and next_attempt_at < ? for update skip locked";
+    private static final String RELEASE = "update survey_details set status = ? where id = ? and status = ?";
+    private static final String COUNT_BACKLOG = "select count(*) from survey_details where status in (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvitationSender sender;
+    private final SurveyProgressService progressService;
+    private final ExecutorService workers;
+    private final int concurrency;
+    private final RateLimiter rateLimiter;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong backlog = new AtomicLong();
+    private final Timer batchTimer;
+
+    @Value("${survey.dispatch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${survey.dispatch.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${survey.dispatch.messages-per-connection:50}")
+    private int messagesPerConnection = 50;
+
+    @Value("${survey.dispatch.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${survey.dispatch.backoff:PT1M}")
+    private Duration backoff = Duration.ofMinutes(1);
+
+    @Value("${survey.dispatch.max-backoff:PT1H}")
+    private Duration maxBackoff = Duration.ofHours(1);
+
+    @Value("${survey.dispatch.lease:PT10M}")
+    private Duration lease = Duration.ofMinutes(10);
+
+    public InvitationDispatcher(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                InvitationSender sender,
+                                SurveyProgressService progressService,
+                                @Value("${survey.dispatch.concurrency:16}") int concurrency,
+                                @Value("${survey.dispatch.rate-per-second:500}") int ratePerSecond,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sender = sender;
+        this.progressService = progressService;
+        this.concurrency = concurrency;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "invitation-sender-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // Permits are handed out every 100ms rather than once a second, so the rate stays smooth.
+        this.rateLimiter = RateLimiter.of("invitations", RateLimiterConfig.custom()
+                .limitForPeriod(Math.max(1, ratePerSecond / 10))
+                .limitRefreshPeriod(Duration.ofMillis(100))
+                .timeoutDuration(Duration.ofMinutes(1))
+                .build());
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.batchTimer = registry == null ? null : Timer.builder("survey.invitations.batch").register(registry);
+        if (registry != null) {
+            FunctionCounter.builder("survey.invitations", sent, LongAdder::sum).tag("outcome", "sent").register(registry);
+            FunctionCounter.builder("survey.invitations", retried, LongAdder::sum).tag("outcome", "retried").register(registry);
+            FunctionCounter.builder("survey.invitations", failed, LongAdder::sum).tag("outcome", "failed").register(registry);
+            Gauge.builder("survey.invitations.backlog", backlog, AtomicLong::get).register(registry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${survey.dispatch.poll-interval:PT5S}")
+    public void dispatch() {
+        if (!enabled)
+            return;
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Invitation dispatch failed", e);
+        }
+    }
+
+    /** Sends batches until no due recipients are left and returns how many were attempted. */
+    public long drain() {
+        releaseLapsedClaims();
+        long attempted = 0;
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+            attempted += claimed;
+        } while (claimed == batchSize);
+        backlog.set(jdbcTemplate.queryForObject(COUNT_BACKLOG, Long.class, Status.PENDING.ordinal(), Status.SENDING.ordinal()));
+        return attempted;
+    }
+
+    int dispatchBatch() {
+        long start = System.nanoTime();
+        List<Emails> batch = claim();
+        if (batch.isEmpty())
+            return 0;
+
+        // Small batches are spread over all workers rather than filling a few connections.
+        int chunkSize = Math.max(1, Math.min(messagesPerConnection, (batch.size() + concurrency - 1) / concurrency));
+        List<Future<Map<Long, String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<Emails> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            chunks.add(workers.submit(() -> send(chunk)));
+        }
+        Map<Long, String> failures = new HashMap<>();
+        for (Future<Map<Long, String>> chunk : chunks)
+            failures.putAll(await(chunk));
+
+        complete(batch, failures);
+        if (batchTimer != null)
+            batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        return batch.size();
+    }
+
+    private List<Emails> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp leaseEnd = Timestamp.valueOf(now.plus(lease));
+        return transactionTemplate.execute(status -> {
+            List<Emails> batch = jdbcTemplate.query(CLAIM, (rs, i) -> new Emails(rs.getLong("id"), rs.getString("email"),
+                            rs.getLong("surveyid"), Status.SENDING, rs.getInt("attempts"), null),
+                    Status.PENDING.ordinal(), Timestamp.valueOf(now), batchSize);
+            jdbcTemplate.batchUpdate(UPDATE, batch, batch.size(), (ps, email) -> {
+                ps.setInt(1, Status.SENDING.ordinal());
+                ps.setInt(2, email.getAttempts());
+                ps.setTimestamp(3, leaseEnd);
+                ps.setLong(4, email.getId());
+                ps.setInt(5, Status.PENDING.ordinal());
+            });
+            // The claimed rows are locked and PENDING, so every update applies.
+            SurveyProgressService.Changes changes = new SurveyProgressService.Changes();
+            for (Emails email : batch)
+                changes.move(email.getSurveyid(), Status.PENDING, Status.SENDING);
+            progressService.apply(changes);
+            return batch;
+        });
+    }
+
+    private Map<Long, String> send(List<Emails> chunk) {
+        try {
+            for (int i = 0; i < chunk.size(); i++)
+                RateLimiter.waitForPermission(rateLimiter);
+            return sender.send(chunk);
+        } catch (RuntimeException e) {
+            log.warn("Sending {} invitations failed: {}", chunk.size(), e.getMessage());
+            Map<Long, String> failures = new HashMap<>();
+            for (Emails email : chunk)
+                failures.put(email.getId(), String.valueOf(e.getMessage()));
+            return failures;
+        }
+    }
+
+    private void complete(List<Emails> batch, Map<Long, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            int[][] updated = jdbcTemplate.batchUpdate(UPDATE, batch, batch.size(), (ps, email) -> {
+                int attempts = email.getAttempts() + 1;
+                Status outcome = outcome(email, failures);
+                ps.setInt(1, outcome.ordinal());
+                ps.setInt(2, attempts);
+                ps.setTimestamp(3, outcome == Status.PENDING ? Timestamp.valueOf(now.plus(backoff(attempts))) : null);
+                ps.setLong(4, email.getId());
+                ps.setInt(5, Status.SENDING.ordinal());
+            });
+            SurveyProgressService.Changes changes = new SurveyProgressService.Changes();
+            for (int i = 0; i < batch.size(); i++) {
+                if (updated[0][i] != 0)
+                    changes.move(batch.get(i).getSurveyid(), Status.SENDING, outcome(batch.get(i), failures));
+            }
+            progressService.apply(changes);
+        });
+
+        for (Emails email : batch) {
+            switch (outcome(email, failures)) {
+                case SENT -> sent.increment();
+                case FAILED -> failed.increment();
+                default -> retried.increment();
+            }
+        }
+    }
+
+    private Status outcome(Emails email, Map<Long, String> failures) {
+        if (!failures.containsKey(email.getId()))
+            return Status.SENT;
+        return email.getAttempts() + 1 >= maxAttempts ? Status.FAILED : Status.PENDING;
+    }
+
+    // backoff, 2 x backoff, 4 x backoff, ... capped at max-backoff
+    Duration backoff(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void releaseLapsedClaims() {
+        int released = transactionTemplate.execute(status -> {
+            List<long[]> lapsed = jdbcTemplate.query(FIND_LAPSED, (rs, i) -> new long[]{rs.getLong("id"), rs.getLong("surveyid")},
+                    Status.SENDING.ordinal(), Timestamp.valueOf(LocalDateTime.now()));
+            jdbcTemplate.batchUpdate(RELEASE, lapsed, lapsed.size(), (ps, row) -> {
+                ps.setInt(1, Status.PENDING.ordinal());
+                ps.setLong(2, row[0]);
+                ps.setInt(3, Status.SENDING.ordinal());
+            });
+            SurveyProgressService.Changes changes = new SurveyProgressService.Changes();
+            for (long[] row : lapsed)
+                changes.move(row[1], Status.SENDING, Status.PENDING);
+            progressService.apply(changes);
+            return lapsed.size();
+        });
+        if (released > 0)
+            log.warn("Released {} invitations whose dispatch claim lapsed", released);
+    }
+
+    private static Map<Long, String> await(Future<Map<Long, String>> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public long sentCount() {
+        return sent.sum();
+    }
+
+    public long retriedCount() {
+        return retried.sum();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long backlog() {
+        return backlog.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
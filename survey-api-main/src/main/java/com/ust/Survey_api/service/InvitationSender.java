@@ -0,0 +1,16 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.model.Emails;
+
+import java.util.List;
+import java.util.Map;
+
+public interface InvitationSender {
+
+    /**
+     * Sends one survey invitation to each recipient and returns the ids of the
+     * recipients that were not sent, with the reason. Throws when none of them
+     * could be sent (for example when the mail server is unreachable).
+     */
+    Map<Long, String> send(List<Emails> recipients);
+}
@@ -0,0 +1,164 @@
+package com.ust.Survey_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ust.Survey_api.exception.SetNotFoundException;
+import com.ust.Survey_api.feign.AssessmentClient;
+import com.ust.Survey_api.feign.CompanyRecommendation;
+import com.ust.Survey_api.feign.CompanyReport;
+import com.ust.Survey_api.feign.Recommendation;
+import com.ust.Survey_api.feign.RespondentReport;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.repository.SurveySetSnapshotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns chosen answers into recommendation reports using each answer's
+ * suggestion. Suggestions come from a {@link SuggestionTable} per set version
+ * (the survey's snapshot content hash), built once and cached, so a report is
+ * one pass over the responses with in-memory lookups and no AssessmentService
+ * calls. Only surveys created before snapshots existed use the live set; those
+ * tables are rebuilt after a TTL, since the set behind a setid can be edited.
+ */
+@Service
+public class ReportService {
+
+    private static final String RESPONSES = "select r.recipient_id, d.email, r.question_id, r.answer_id"
+            + " from survey_response r join survey_details d on d.id = r.recipient_id"
+            + " where r.surveyid = ? order by r.recipient_id, r.question_id";
+
+    private record ChoiceKey(long questionId, long answerId) {
+    }
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private SurveySetSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private SetSnapshotCodec snapshotCodec;
+
+    @Autowired
+    private AssessmentClient client;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResponseTally responseTally;
+
+    private static final String LEGACY_PREFIX = "set:";
+
+    /** Snapshot tables never go stale; tables built from a live set expire after the TTL. */
+    record TableExpiry(Duration legacyTtl) implements Expiry<String, SuggestionTable> {
+        @Override
+        public long expireAfterCreate(String key, SuggestionTable table, long currentTime) {
+            return key.startsWith(LEGACY_PREFIX) ? legacyTtl.toNanos() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, SuggestionTable table, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, table, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, SuggestionTable table, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // Keyed by snapshot content hash, so surveys sent with identical set content share a table.
+    // Surveys sent before snapshots existed share one table per setid, built from the live set.
+    private final Cache<String, SuggestionTable> tables;
+
+    public ReportService(@Value("${survey.reports.tables.max-size:1000}") long maxTables,
+                         @Value("${survey.reports.legacy-tables.ttl:PT5M}") Duration legacyTtl,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.tables = Caffeine.newBuilder()
+                .maximumSize(maxTables)
+                .expireAfter(new TableExpiry(legacyTtl))
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, tables, "suggestionTables"));
+    }
+
+    /** One report per recipient who responded, in recipient order. */
+    public List<RespondentReport> respondentReports(long surveyid) {
+        SuggestionTable table = table(survey(surveyid));
+        List<RespondentReport> reports = new ArrayList<>();
+        jdbcTemplate.query(RESPONSES, rs -> {
+            long recipientId = rs.getLong(1);
+            RespondentReport report = reports.isEmpty() ? null : reports.get(reports.size() - 1);
+            if (report == null || report.getRecipientId() != recipientId) {
+                report = new RespondentReport(recipientId, rs.getString(2), new ArrayList<>());
+                reports.add(report);
+            }
+            long questionId = rs.getLong(3);
+            long answerId = rs.getLong(4);
+            SuggestionTable.Choice choice = table.lookup(questionId, answerId);
+            report.getRecommendations().add(choice == null
+                    ? new Recommendation(questionId, null, answerId, null, null)
+                    : new Recommendation(questionId, choice.question(), answerId, choice.answer(), choice.suggestion()));
+        }, surveyid);
+        return reports;
+    }
+
+    /** Every answer chosen in the company's surveys with its suggestion, most chosen first. */
+    public CompanyReport companyReport(String companyName) {
+        List<Survey> surveys = surveyRepository.findByCompanyName(companyName);
+        if (surveys.isEmpty())
+            throw new SetNotFoundException("No surveys for company " + companyName);
+
+        Map<ChoiceKey, CompanyRecommendation> merged = new HashMap<>();
+        for (Survey survey : surveys) {
+            SuggestionTable table = table(survey);
+            responseTally.results(survey.getSurveyid()).forEach((questionId, answers) -> answers.forEach((answerId, count) -> {
+                CompanyRecommendation recommendation = merged.computeIfAbsent(new ChoiceKey(questionId, answerId),
+                        key -> new CompanyRecommendation(questionId, null, answerId, null, null, 0));
+                // Each survey's answers are looked up in its own set version
+                SuggestionTable.Choice choice = recommendation.getQuestion() == null ? table.lookup(questionId, answerId) : null;
+                if (choice != null) {
+                    recommendation.setQuestion(choice.question());
+                    recommendation.setAnswer(choice.answer());
+                    recommendation.setSuggestion(choice.suggestion());
+                }
+                recommendation.setRespondents(recommendation.getRespondents() + count);
+            }));
+        }
+        List<CompanyRecommendation> recommendations = new ArrayList<>(merged.values());
+        recommendations.sort(Comparator.comparingLong(CompanyRecommendation::getRespondents).reversed()
+                .thenComparing(CompanyRecommendation::getQuestionId)
+                .thenComparing(CompanyRecommendation::getAnswerId));
+        return new CompanyReport(companyName, surveys.size(), recommendations);
+    }
+
+    private Survey survey(long surveyid) {
+        Survey survey = surveyRepository.findBySurveyid(surveyid);
+        if (survey == null)
+            throw new SetNotFoundException("Invalid survey id");
+        return survey;
+    }
+
+    SuggestionTable table(Survey survey) {
+        return snapshotRepository.findContentHashBySurveyid(survey.getSurveyid())
+                .map(hash -> tables.get(hash, h -> SuggestionTable.of(snapshotCodec.decode(
+                        snapshotRepository.findById(survey.getSurveyid()).orElseThrow()))))
+                .orElseGet(() -> tables.get(LEGACY_PREFIX + survey.getSetid(), key -> SuggestionTable.of(client.getSet(survey.getSetid()).getBody())));
+    }
+}
@@ -0,0 +1,224 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.exception.InvalidResponseException;
+import com.ust.Survey_api.exception.RecipientNotFoundException;
+import com.ust.Survey_api.exception.SubmissionBufferFullException;
+import com.ust.Survey_api.feign.QuestionAnswer;
+import com.ust.Survey_api.feign.ResponseSubmission;
+import com.ust.Survey_api.model.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records survey responses through a group commit. Submissions are validated
+ * and their recipient resolved on the request thread, then queued; a single
+ * writer thread takes everything queued so far (up to max-batch) and writes it
+ * in one transaction: one JDBC batch moving the recipients to COMPLETED and one
+ * inserting the answers. The request completes when its batch has committed,
+ * so nothing is acknowledged before it is durable. The same transaction adds
+ * the answers to the {@link ResponseTally} counts. Under load the queue fills
+ * while a batch is being written and the next batch is larger; when idle a
+ * submission is written on its own without waiting.
+ * <p>
+ * A recipient can respond once: the status update only matches recipients not
+ * yet COMPLETED or EXPIRED, and a submission whose update matched nothing is
+ * reported as rejected and its answers are not written. The batch locks its
+ * recipients first, so the status each one leaves is known and the survey
+ * progress counters are moved in the same transaction.
+ */
+@Slf4j
+@Service
+public class ResponseIngestionService {
+
+    private static final String FIND_RECIPIENT = "select d.id from survey_details d join survey s on s.surveyid = d.surveyid"
+            + " where d.surveyid = ? and d.email = ? and s.closed_at is null";
+    private static final String LOCK_RECIPIENTS = "select id, status from survey_details where id in (%s) order by id for update";
+    private static final String COMPLETE = "update survey_details set status = ? where id = ? and status not in (?, ?)";
+    private static final String INSERT_ANSWER = "insert into survey_response (surveyid, recipient_id, question_id, answer_id, submitted_at)"
+            + " values (?, ?, ?, ?, ?)";
+
+    private record Submission(long surveyid, long recipientId, List<QuestionAnswer> answers, LocalDateTime submittedAt,
+                              CompletableFuture<Boolean> result) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResponseTally tally;
+    private final SurveyProgressService progressService;
+    private final BlockingQueue<Submission> buffer;
+    private final int maxBatch;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final DistributionSummary batchSizes;
+
+    public ResponseIngestionService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ResponseTally tally,
+                                    SurveyProgressService progressService,
+                                    @Value("${survey.responses.buffer-capacity:10000}") int bufferCapacity,
+                                    @Value("${survey.responses.max-batch:1000}") int maxBatch,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tally = tally;
+        this.progressService = progressService;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.maxBatch = maxBatch;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.batchSizes = registry == null ? null : DistributionSummary.builder("survey.responses.batch.size").register(registry);
+        if (registry != null) {
+            FunctionCounter.builder("survey.responses", accepted, LongAdder::sum).tag("outcome", "accepted").register(registry);
+            FunctionCounter.builder("survey.responses", rejected, LongAdder::sum).tag("outcome", "rejected").register(registry);
+            FunctionCounter.builder("survey.responses.flushes", flushes, LongAdder::sum).register(registry);
+            Gauge.builder("survey.responses.buffered", buffer, BlockingQueue::size).register(registry);
+        }
+
+        this.writer = new Thread(this::writeLoop, "response-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a recipient's answers. The returned future completes with true once
+     * they are committed, or false when the recipient had already responded.
+     */
+    public CompletableFuture<Boolean> submit(long surveyid, ResponseSubmission submission) {
+        List<QuestionAnswer> answers = submission.getAnswers();
+        if (submission.getEmail() == null || answers == null || answers.isEmpty())
+            throw new InvalidResponseException("A response needs an email and at least one answer.");
+        Set<Long> questions = new HashSet<>();
+        for (QuestionAnswer answer : answers) {
+            if (answer.getQuestionId() == null || answer.getAnswerId() == null || !questions.add(answer.getQuestionId()))
+                throw new InvalidResponseException("Each answer needs a questionId and an answerId, one per question.");
+        }
+        Long recipientId = jdbcTemplate.query(FIND_RECIPIENT, rs -> rs.next() ? rs.getLong(1) : null,
+                surveyid, submission.getEmail().trim());
+        if (recipientId == null)
+            throw new RecipientNotFoundException("No open survey " + surveyid + " for " + submission.getEmail());
+
+        Submission queued = new Submission(surveyid, recipientId, List.copyOf(answers), LocalDateTime.now(), new CompletableFuture<>());
+        if (!running || !buffer.offer(queued))
+            throw new SubmissionBufferFullException("Too many responses are waiting to be written; retry shortly.");
+        return queued.result();
+    }
+
+    private void writeLoop() {
+        List<Submission> batch = new ArrayList<>(maxBatch);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Submission first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                buffer.drainTo(batch, maxBatch - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Keep the writer alive; anything not yet answered in this batch fails.
+                log.error("Completing {} survey responses failed", batch.size(), e);
+                batch.forEach(submission -> submission.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Submission> batch) {
+        boolean[] completed = new boolean[batch.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Status> before = lock(batch);
+                List<Object[]> recipients = new ArrayList<>(batch.size());
+                for (Submission submission : batch)
+                    recipients.add(new Object[]{Status.COMPLETED.ordinal(), submission.recipientId(),
+                            Status.COMPLETED.ordinal(), Status.EXPIRED.ordinal()});
+                int[] updated = jdbcTemplate.batchUpdate(COMPLETE, recipients);
+                List<Object[]> rows = new ArrayList<>();
+                SurveyProgressService.Changes changes = new SurveyProgressService.Changes();
+                ResponseTally.Changes answers = new ResponseTally.Changes();
+                for (int i = 0; i < batch.size(); i++) {
+                    completed[i] = updated[i] != 0;
+                    if (!completed[i])
+                        continue;
+                    Submission submission = batch.get(i);
+                    changes.move(submission.surveyid(), before.put(submission.recipientId(), Status.COMPLETED), Status.COMPLETED);
+                    answers.add(submission.surveyid(), submission.answers());
+                    Timestamp submittedAt = Timestamp.valueOf(submission.submittedAt());
+                    for (QuestionAnswer answer : submission.answers())
+                        rows.add(new Object[]{submission.surveyid(), submission.recipientId(),
+                                answer.getQuestionId(), answer.getAnswerId(), submittedAt});
+                }
+                jdbcTemplate.batchUpdate(INSERT_ANSWER, rows);
+                tally.record(answers);
+                progressService.apply(changes);
+            });
+        } catch (RuntimeException e) {
+            log.error("Writing {} survey responses failed", batch.size(), e);
+            batch.forEach(submission -> submission.result().completeExceptionally(e));
+            return;
+        }
+
+        flushes.increment();
+        if (batchSizes != null)
+            batchSizes.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            (completed[i] ? accepted : rejected).increment();
+            batch.get(i).result().complete(completed[i]);
+        }
+    }
+
+    // Locks the batch's recipients in id order and returns their current status.
+    private Map<Long, Status> lock(List<Submission> batch) {
+        Object[] ids = batch.stream().map(Submission::recipientId).distinct().toArray();
+        String placeholders = String.join(", ", Collections.nCopies(ids.length, "?"));
+        Map<Long, Status> statuses = new HashMap<>();
+        jdbcTemplate.query(String.format(LOCK_RECIPIENTS, placeholders), rs -> {
+            int status = rs.getInt("status");
+            statuses.put(rs.getLong("id"), rs.wasNull() ? null : Status.values()[status]);
+        }, ids);
+        return statuses;
+    }
+
+    public long flushCount() {
+        return flushes.sum();
+    }
+
+    // Stops taking submissions and writes what is already queued.
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
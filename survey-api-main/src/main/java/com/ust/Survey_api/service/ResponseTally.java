@@ -0,0 +1,147 @@
+package com.ust.Survey_api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ust.Survey_api.feign.QuestionAnswer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Per-answer counts for each survey, kept in survey_answer_tally (one row per
+ * survey, question and answer). Committed responses are added in the
+ * transaction that writes them, as one upsert per answer touched, so the counts
+ * always match survey_response, on every instance and across restarts. Results
+ * are served from a local cache: once this instance commits answers, their
+ * counts are added to the cached entry instead of reloading it, and an entry is
+ * reloaded from the table only when it expires after the cache TTL, which is
+ * how counts written by other instances show up. Surveys without answers are
+ * not cached.
+ */
+@Service
+public class ResponseTally {
+
+    private static final String LOAD = "select question_id, answer_id, responses from survey_answer_tally where surveyid = ?";
+
+    private record Key(long surveyid, long questionId, long answerId) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int bySurvey = Long.compare(surveyid, other.surveyid);
+            if (bySurvey != 0)
+                return bySurvey;
+            int byQuestion = Long.compare(questionId, other.questionId);
+            return byQuestion != 0 ? byQuestion : Long.compare(answerId, other.answerId);
+        }
+    }
+
+    /** Answers collected by one transaction. Not thread-safe. */
+    public static final class Changes {
+        private final Map<Key, Long> deltas = new TreeMap<>();
+
+        public Changes add(long surveyid, Collection<QuestionAnswer> answers) {
+            for (QuestionAnswer answer : answers)
+                deltas.merge(new Key(surveyid, answer.getQuestionId(), answer.getAnswerId()), 1L, Long::sum);
+            return this;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CounterUpsert counts;
+    // surveyid -> questionId -> answerId -> responses
+    private final Cache<Long, Map<Long, Map<Long, Long>>> results;
+
+    public ResponseTally(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${survey.results.cache.max-size:10000}") long maxSize,
+                         @Value("${survey.results.cache.ttl:PT5S}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.counts = new CounterUpsert(jdbcTemplate, "survey_answer_tally", List.of("surveyid", "question_id", "answer_id"), "responses");
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Map<Long, Map<Long, Long>>>() {
+                    @Override
+                    public long expireAfterCreate(Long surveyid, Map<Long, Map<Long, Long>> survey, long currentTime) {
+                        return ttl.toNanos();
+                    }
+
+                    // Local additions keep the load time, so the entry is still reloaded on schedule.
+                    @Override
+                    public long expireAfterUpdate(Long surveyid, Map<Long, Map<Long, Long>> survey, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long surveyid, Map<Long, Map<Long, Long>> survey, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Adds the answers to the counts, in the caller's transaction when there is
+     * one so they commit or roll back with the responses. Rows are written in key
+     * order so concurrent writers lock them in the same order.
+     */
+    public void record(Changes changes) {
+        List<Object[]> rows = new ArrayList<>(changes.deltas.size());
+        changes.deltas.forEach((key, delta) -> rows.add(new Object[]{key.surveyid(), key.questionId(), key.answerId(), delta}));
+        if (rows.isEmpty())
+            return;
+        Map<Long, Map<Key, Long>> bySurvey = new TreeMap<>();
+        changes.deltas.forEach((key, delta) -> bySurvey.computeIfAbsent(key.surveyid(), id -> new TreeMap<>()).put(key, delta));
+        transactionTemplate.executeWithoutResult(status -> {
+            counts.add(rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bySurvey.forEach((surveyid, deltas) ->
+                            results.asMap().computeIfPresent(surveyid, (id, survey) -> plus(survey, deltas)));
+                }
+            });
+        });
+    }
+
+    /** Cached entries are shared with readers, so additions go to a copy. */
+    private static Map<Long, Map<Long, Long>> plus(Map<Long, Map<Long, Long>> survey, Map<Key, Long> deltas) {
+        Map<Long, Map<Long, Long>> questions = new TreeMap<>(survey);
+        Set<Long> copied = new HashSet<>();
+        deltas.forEach((key, delta) -> {
+            Map<Long, Long> answers = questions.get(key.questionId());
+            if (answers == null || copied.add(key.questionId()))
+                questions.put(key.questionId(), answers = answers == null ? new TreeMap<>() : new TreeMap<>(answers));
+            answers.merge(key.answerId(), delta, Long::sum);
+        });
+        return questions;
+    }
+
+    public Map<Long, Map<Long, Long>> results(long surveyid) {
+        Map<Long, Map<Long, Long>> survey = results.get(surveyid, this::load);
+        return survey == null ? Map.of() : survey;
+    }
+
+    private Map<Long, Map<Long, Long>> load(long surveyid) {
+        Map<Long, Map<Long, Long>> questions = new TreeMap<>();
+        jdbcTemplate.query(LOAD, rs -> {
+            questions.computeIfAbsent(rs.getLong("question_id"), q -> new TreeMap<>())
+                    .put(rs.getLong("answer_id"), rs.getLong("responses"));
+        }, surveyid);
+        return questions.isEmpty() ? null : questions;
+    }
+}
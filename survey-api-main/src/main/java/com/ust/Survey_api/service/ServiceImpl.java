@@ -1,28 +1,59 @@
 package com.ust.Survey_api.service;
 
+import com.ust.Survey_api.exception.AssessmentUnavailableException;
 import com.ust.Survey_api.exception.SetNotFoundException;
 import com.ust.Survey_api.feign.*;
 import com.ust.Survey_api.model.Emails;
 import com.ust.Survey_api.model.Status;
 import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.model.SurveySetSnapshot;
 import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyFilter;
 import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.repository.SurveySetSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+@Slf4j
 @Service
 public class ServiceImpl  implements  SurveyService{
 
     private static final AtomicLong counter = new AtomicLong(0);
-    private static LocalDate expireDate;
+
+    // Bounded pool shared by all set fetches so a large survey list cannot spawn unbounded threads.
+    private static final int SET_FETCH_THREADS = 8;
+    private static final int SET_BATCH_SIZE = 100;
+    private final ExecutorService setFetchPool = Executors.newFixedThreadPool(SET_FETCH_THREADS, r -> {
+        Thread t = new Thread(r, "set-fetch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${survey.setdata.fetch.timeout.ms:2000}")
+    private long setFetchTimeoutMs = 2000;
+
+    @Value("${survey.page.max-size:200}")
+    private int maxPageSize = 200;
+
     @Autowired
     private AssessmentClient client;
 
@@ -31,10 +62,20 @@ public class ServiceImpl  implements  SurveyService{
 
     @Autowired
     private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveySetSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private SetSnapshotCodec snapshotCodec;
+
+    @Autowired
+    private SurveyProgressService progressService;
     @Value("${survey.expire.time.days}")
     private int expireTimeDays;
 
     @Override
+    @Transactional
     public PostDto addSurvey(SurveyRequestDto survey) {
         PostDto fr = new PostDto();
         long id = counter.incrementAndGet();
@@ -47,6 +88,9 @@ public class ServiceImpl  implements  SurveyService{
         try {
             optionalSetData = client.getSet(survey.getSetid()).getBody();
             fr.setSetdata(optionalSetData);
+        } catch (AssessmentUnavailableException e) {
+            // An outage is not a bad setid; let the caller see 503 and retry.
+            throw e;
         } catch (Exception e) {
             throw new SetNotFoundException("Set not found.");
         }
@@ -56,23 +100,49 @@ public class ServiceImpl  implements  SurveyService{
         s.setRequestor(survey.getRequestor());
         s.setSetid(survey.getSetid());
         s.setCreatedDate(LocalDate.now());
-        expireDate=(LocalDate.now().plus(expireTimeDays, ChronoUnit.DAYS));
+        s.setExpireDate(LocalDate.now().plusDays(expireTimeDays));
         s.setCompanyName(survey.getCompanyName());
         Survey se= repo.save(s);
+        // Freeze the set content the survey goes out with; reads use this copy from now on.
+        if (optionalSetData != null)
+            snapshotRepository.save(snapshotCodec.encode(se.getSurveyid(), survey.getSetid(), optionalSetData));
         fr.setSurveyid(se.getSurveyid());
         return fr;
     }
 
     @Override
-    public List<FullResponse> getSurveys() {
-        List<FullResponse> frs = new ArrayList<FullResponse>();
+    public List<FullResponse> getSurveys(boolean withSetdata) {
         List<Survey> surveys = null;
         try{
-             surveys =  repo.findAll();
+             surveys =  repo.findByClosedAtIsNull();
         }
         catch(Exception e){
             throw new SetNotFoundException("Invalid survey id");
         }
+        return toResponses(surveys, withSetdata);
+    }
+
+    @Override
+    public SurveyPage getSurveyPage(SurveyFilter filter, Long after, int size, boolean withSetdata) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        List<Survey> surveys = repo.findBy(filter.after(after),
+                query -> query.sortBy(Sort.by("surveyid")).limit(limit).all());
+        Long nextCursor = surveys.size() == limit ? surveys.get(limit - 1).getSurveyid() : null;
+        return new SurveyPage(toResponses(surveys, withSetdata), nextCursor);
+    }
+
+    private List<FullResponse> toResponses(List<Survey> surveys, boolean withSetdata) {
+        List<FullResponse> frs = new ArrayList<FullResponse>();
+        Map<Long, List<SetNameDto>> snapshots = withSetdata
+                ? loadSnapshots(surveys.stream().map(Survey::getSurveyid).toList())
+                : Map.of();
+        // Only surveys created before snapshots existed still need the live set.
+        Map<Long, List<SetNameDto>> setData = withSetdata
+                ? fetchSets(surveys.stream()
+                        .filter(survey -> !snapshots.containsKey(survey.getSurveyid()))
+                        .map(Survey::getSetid)
+                        .toList())
+                : Map.of();
         for (Survey survey : surveys) {
             FullResponse fr = new FullResponse();
             fr.setId(survey.getId());
@@ -80,17 +150,17 @@ public class ServiceImpl  implements  SurveyService{
             fr.setRequestor(survey.getRequestor());
             fr.setSetId(survey.getSetid());
             fr.setCreatedDate(survey.getCreatedDate());
-            fr.setExpireDate(expireDate);
+            fr.setExpireDate(survey.getExpireDate());
             fr.setCompanyName(survey.getCompanyName());
-            List<SetNameDto> dtos = client.getSet(survey.getSetid()).getBody();
-            fr.setSetdata(dtos);
+            List<SetNameDto> snapshot = snapshots.get(survey.getSurveyid());
+            fr.setSetdata(snapshot != null ? snapshot : setData.get(survey.getSetid()));
             frs.add(fr);
         }
         return frs;
     }
 
     @Override
-    public FullResponse getSurveyById(Long surveyId) {
+    public FullResponse getSurveyById(Long surveyId, boolean withSetdata) {
         FullResponse fr = new FullResponse();
 
         Survey survey = repo.findBySurveyid(surveyId);
@@ -104,13 +174,18 @@ public class ServiceImpl  implements  SurveyService{
         fr.setSetId(survey.getSetid());
         fr.setCompanyName(survey.getCompanyName());
         fr.setCreatedDate(survey.getCreatedDate());
-        fr.setExpireDate(expireDate);
-        List<SetNameDto> dtos = client.getSet(survey.getSetid()).getBody();
+        fr.setExpireDate(survey.getExpireDate());
+        if (!withSetdata)
+            return fr;
+        List<SetNameDto> dtos = snapshotRepository.findById(survey.getSurveyid())
+                .map(snapshotCodec::decode)
+                .orElseGet(() -> client.getSet(survey.getSetid()).getBody());
         fr.setSetdata(dtos);
         return fr;
     }
 
     @Override
+    @Transactional
     public List<Emails> addEmails(Long surveyid, List<String> emails) {
         try {
             List<Emails> emailList = new ArrayList<Emails>();
@@ -124,7 +199,9 @@ public class ServiceImpl  implements  SurveyService{
             Survey survey = repo.findBySurveyid(surveyid);
             survey.setEmails(emailList);
             repo.save(survey);
-            return emailRepository.saveAll(emailList);
+            List<Emails> saved = emailRepository.saveAll(emailList);
+            progressService.apply(new SurveyProgressService.Changes().add(surveyid, Status.PENDING, emailList.size()));
+            return saved;
         }
         catch (Exception e) {
             throw new SetNotFoundException("Invalid email found.");
@@ -145,5 +222,43 @@ public class ServiceImpl  implements  SurveyService{
         return e;
     }
 
+    private Map<Long, List<SetNameDto>> loadSnapshots(Collection<Long> surveyids) {
+        Map<Long, List<SetNameDto>> snapshots = new HashMap<>();
+        for (SurveySetSnapshot snapshot : snapshotRepository.findAllById(surveyids))
+            snapshots.put(snapshot.getSurveyid(), snapshotCodec.decode(snapshot));
+        return snapshots;
+    }
 
+    /**
+     * Fetches each distinct set once, in batches of {@code SET_BATCH_SIZE} that run
+     * concurrently on the set fetch pool. A batch that fails or does not answer
+     * within the deadline leaves its sets mapped to null instead of failing the
+     * whole listing.
+     */
+    private Map<Long, List<SetNameDto>> fetchSets(Collection<Long> setids) {
+        List<Long> distinct = setids.stream().filter(Objects::nonNull).distinct().toList();
+        List<CompletableFuture<Map<Long, List<SetNameDto>>>> pending = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += SET_BATCH_SIZE) {
+            List<Long> batch = distinct.subList(from, Math.min(from + SET_BATCH_SIZE, distinct.size()));
+            pending.add(CompletableFuture
+                    .supplyAsync(() -> client.getSets(batch).getBody(), setFetchPool)
+                    .orTimeout(setFetchTimeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(ex -> {
+                        log.warn("Could not load sets {}: {}", batch, ex.toString());
+                        return null;
+                    }));
+        }
+        Map<Long, List<SetNameDto>> result = new HashMap<>();
+        for (CompletableFuture<Map<Long, List<SetNameDto>>> future : pending) {
+            Map<Long, List<SetNameDto>> sets = future.join();
+            if (sets != null)
+                result.putAll(sets);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    void shutdownSetFetchPool() {
+        setFetchPool.shutdownNow();
+    }
 }
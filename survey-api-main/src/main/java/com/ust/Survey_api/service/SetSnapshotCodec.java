@@ -0,0 +1,71 @@
+package com.ust.Survey_api.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ust.Survey_api.feign.SetNameDto;
+import com.ust.Survey_api.model.SurveySetSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes set snapshots. Version 1 is the SetNameDto list as gzipped JSON; the
+ * content hash is the SHA-256 of the uncompressed JSON, so two surveys sent with
+ * identical set content share a hash.
+ */
+@Component
+public class SetSnapshotCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final TypeReference<List<SetNameDto>> SET_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper mapper;
+
+    public SetSnapshotCodec(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public SurveySetSnapshot encode(Long surveyid, Long setid, List<SetNameDto> setdata) {
+        try {
+            byte[] json = mapper.writeValueAsBytes(setdata);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (OutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            return new SurveySetSnapshot(surveyid, setid, FORMAT_VERSION, sha256(json), gzip.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<SetNameDto> decode(SurveySetSnapshot snapshot) {
+        if (snapshot.getFormatVersion() != FORMAT_VERSION)
+            throw new IllegalStateException("Unknown set snapshot format " + snapshot.getFormatVersion()
+                    + " for survey " + snapshot.getSurveyid());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.getData()))) {
+            return mapper.readValue(in, SET_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(byte[] json) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
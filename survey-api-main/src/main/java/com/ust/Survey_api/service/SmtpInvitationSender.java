@@ -0,0 +1,77 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.model.Emails;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends invitations through spring.mail.*. All recipients passed in one call go
+ * out over a single SMTP connection.
+ */
+@Component
+public class SmtpInvitationSender implements InvitationSender {
+
+    private final JavaMailSender mailSender;
+    private final String from;
+    private final String subject;
+    private final String link;
+
+    public SmtpInvitationSender(JavaMailSender mailSender,
+                                @Value("${survey.dispatch.from:surveys@localhost}") String from,
+                                @Value("${survey.dispatch.subject:You are invited to a survey}") String subject,
+                                @Value("${survey.dispatch.link:http://localhost:3000/survey/{surveyid}?email={email}}") String link) {
+        this.mailSender = mailSender;
+        this.from = from;
+        this.subject = subject;
+        this.link = link;
+    }
+
+    @Override
+    public Map<Long, String> send(List<Emails> recipients) {
+        Map<Long, String> failed = new HashMap<>();
+        Map<MimeMessage, Long> ids = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(recipients.size());
+        for (Emails recipient : recipients) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+                helper.setFrom(from);
+                helper.setTo(recipient.getEmail());
+                helper.setSubject(subject);
+                helper.setText("You have been invited to take a survey: " + link(recipient));
+                messages.add(message);
+                ids.put(message, recipient.getId());
+            } catch (MessagingException e) {
+                failed.put(recipient.getId(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty())
+            return failed;
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().size() == messages.size())
+                throw e;
+            e.getFailedMessages().forEach((message, cause) -> failed.put(ids.get(message), cause.getMessage()));
+        }
+        return failed;
+    }
+
+    private String link(Emails recipient) {
+        return link.replace("{surveyid}", String.valueOf(recipient.getSurveyid()))
+                .replace("{email}", URLEncoder.encode(recipient.getEmail(), StandardCharsets.UTF_8));
+    }
+}
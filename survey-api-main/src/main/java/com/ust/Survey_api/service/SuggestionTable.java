@@ -0,0 +1,52 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.feign.Answer;
+import com.ust.Survey_api.feign.SetNameDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable questionId -> answerId -> (question, answer, suggestion) lookup for
+ * one version of a set. Built once per set content and shared by every report
+ * over surveys sent with that content.
+ */
+public final class SuggestionTable {
+
+    public record Choice(String question, String answer, String suggestion) {
+    }
+
+    private final Map<Long, Map<Long, Choice>> choices;
+
+    private SuggestionTable(Map<Long, Map<Long, Choice>> choices) {
+        this.choices = choices;
+    }
+
+    public static SuggestionTable of(List<SetNameDto> set) {
+        Map<Long, Map<Long, Choice>> choices = new HashMap<>();
+        if (set != null) {
+            for (SetNameDto question : set) {
+                if (question.getQuestionId() == null || question.getAnswers() == null)
+                    continue;
+                Map<Long, Choice> answers = new HashMap<>();
+                for (Answer answer : question.getAnswers()) {
+                    if (answer.getAnswerId() != null)
+                        answers.put(answer.getAnswerId(), new Choice(question.getDescription(), answer.getValue(), answer.getSuggestion()));
+                }
+                choices.put(question.getQuestionId(), Map.copyOf(answers));
+            }
+        }
+        return new SuggestionTable(Map.copyOf(choices));
+    }
+
+    /** The chosen answer, or null when the set has no such question or answer. */
+    public Choice lookup(long questionId, long answerId) {
+        Map<Long, Choice> answers = choices.get(questionId);
+        return answers == null ? null : answers.get(answerId);
+    }
+
+    public int questionCount() {
+        return choices.size();
+    }
+}
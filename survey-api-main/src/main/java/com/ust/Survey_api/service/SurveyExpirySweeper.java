@@ -0,0 +1,134 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.model.Status;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closes surveys whose expiry date has passed. Work is done in short
+ * transactions: expired surveys are picked survey-batch-size at a time, their
+ * PENDING recipients are moved to EXPIRED recipient-batch-size rows at a time,
+ * and only then is the survey batch marked closed, so an interrupted sweep
+ * resumes where it stopped. Recipients already sent or answered keep their status.
+ * Each recipient batch is locked, expired and counted in the survey progress
+ * counters in one transaction.
+ */
+@Slf4j
+@Service
+public class SurveyExpirySweeper {
+
+    private static final String FIND_EXPIRED = "select surveyid from survey"
+            + " where closed_at is null and expire_date < :today order by surveyid limit :limit";
+    private static final String FIND_PENDING = "select id, surveyid from survey_details"
+            + " where surveyid in (:surveyids) and status = :pending limit :limit for update skip locked";
+    private static final String EXPIRE_RECIPIENTS = "update survey_details set status = :expired"
+            + " where id in (:ids) and status = :pending";
+    private static final String CLOSE_SURVEYS = "update survey set closed_at = :now"
+            + " where surveyid in (:surveyids) and closed_at is null";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SurveyProgressService progressService;
+
+    private final LongAdder closedSurveys = new LongAdder();
+    private final LongAdder expiredRecipients = new LongAdder();
+
+    @Value("${survey.expire.sweep.survey-batch-size:100}")
+    private int surveyBatchSize = 100;
+
+    @Value("${survey.expire.sweep.recipient-batch-size:1000}")
+    private int recipientBatchSize = 1000;
+
+    public SurveyExpirySweeper(NamedParameterJdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               SurveyProgressService progressService,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.progressService = progressService;
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("survey.expiry.closed.surveys", closedSurveys, LongAdder::sum).register(registry);
+            FunctionCounter.builder("survey.expiry.expired.recipients", expiredRecipients, LongAdder::sum).register(registry);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${survey.expire.sweep.interval:PT15M}")
+    public void sweep() {
+        try {
+            int closed = closeExpired(LocalDate.now());
+            if (closed > 0)
+                log.info("Closed {} expired surveys", closed);
+        } catch (RuntimeException e) {
+            log.error("Survey expiry sweep failed", e);
+        }
+    }
+
+    /** Closes every open survey that expired before {@code today} and returns how many were closed. */
+    public int closeExpired(LocalDate today) {
+        int closed = 0;
+        List<Long> surveyids;
+        do {
+            surveyids = jdbcTemplate.queryForList(FIND_EXPIRED, new MapSqlParameterSource()
+                    .addValue("today", Date.valueOf(today))
+                    .addValue("limit", surveyBatchSize), Long.class);
+            if (surveyids.isEmpty())
+                break;
+            expireRecipients(surveyids);
+            List<Long> batch = surveyids;
+            closed += transactionTemplate.execute(status -> jdbcTemplate.update(CLOSE_SURVEYS, new MapSqlParameterSource()
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                    .addValue("surveyids", batch)));
+        } while (surveyids.size() == surveyBatchSize);
+        closedSurveys.add(closed);
+        return closed;
+    }
+
+    private void expireRecipients(List<Long> surveyids) {
+        int found;
+        do {
+            found = transactionTemplate.execute(status -> {
+                List<long[]> batch = jdbcTemplate.query(FIND_PENDING, new MapSqlParameterSource()
+                        .addValue("surveyids", surveyids)
+                        .addValue("pending", Status.PENDING.ordinal())
+                        .addValue("limit", recipientBatchSize), (rs, i) -> new long[]{rs.getLong("id"), rs.getLong("surveyid")});
+                if (batch.isEmpty())
+                    return 0;
+                int expired = jdbcTemplate.update(EXPIRE_RECIPIENTS, new MapSqlParameterSource()
+                        .addValue("expired", Status.EXPIRED.ordinal())
+                        .addValue("pending", Status.PENDING.ordinal())
+                        .addValue("ids", batch.stream().map(row -> row[0]).toList()));
+                // The rows are locked and PENDING, so all of them were expired.
+                SurveyProgressService.Changes changes = new SurveyProgressService.Changes();
+                for (long[] row : batch)
+                    changes.move(row[1], Status.PENDING, Status.EXPIRED);
+                progressService.apply(changes);
+                expiredRecipients.add(expired);
+                return batch.size();
+            });
+        } while (found == recipientBatchSize);
+    }
+
+    public long closedSurveys() {
+        return closedSurveys.sum();
+    }
+
+    public long expiredRecipients() {
+        return expiredRecipients.sum();
+    }
+}
@@ -0,0 +1,146 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.model.Status;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rebuilds the progress counters from survey_details. Surveys are walked in
+ * chunks of chunk-size ids and the chunks are reconciled in parallel on a small
+ * pool. Each chunk counts recipients per status and reads the counters in one
+ * repeatable-read transaction, then adds the difference to the counters, so
+ * status changes committed while the chunk runs are neither lost nor counted
+ * twice. A chunk that fails is logged and left for the next run.
+ */
+@Slf4j
+@Service
+public class SurveyProgressReconciler {
+
+    private static final String FIND_SURVEYS = "select surveyid from survey where surveyid > :after order by surveyid limit :limit";
+    private static final String COUNT_RECIPIENTS = "select surveyid, status, count(*) as recipients from survey_details"
+            + " where surveyid in (:surveyids) and status is not null group by surveyid, status";
+    private static final String COUNTERS = "select surveyid, status, recipients from survey_progress where surveyid in (:surveyids)";
+
+    private record Key(long surveyid, int status) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshot;
+    private final SurveyProgressService progressService;
+    private final ExecutorService workers;
+
+    private final LongAdder corrected = new LongAdder();
+
+    @Value("${survey.progress.reconcile.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public SurveyProgressReconciler(NamedParameterJdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    SurveyProgressService progressService,
+                                    @Value("${survey.progress.reconcile.threads:4}") int threads,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.progressService = progressService;
+        AtomicInteger names = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "progress-reconcile-" + names.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        meterRegistry.ifAvailable(registry ->
+                FunctionCounter.builder("survey.progress.reconcile.corrected", corrected, LongAdder::sum).register(registry));
+    }
+
+    @Scheduled(fixedDelayString = "${survey.progress.reconcile.interval:PT6H}",
+            initialDelayString = "${survey.progress.reconcile.initial-delay:PT1M}")
+    public void scheduled() {
+        try {
+            long fixed = reconcile();
+            if (fixed > 0)
+                log.warn("Corrected {} survey progress counters", fixed);
+        } catch (RuntimeException e) {
+            log.error("Survey progress reconciliation failed", e);
+        }
+    }
+
+    /** Reconciles every survey and returns how many counters had to be corrected. */
+    public long reconcile() {
+        List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+        long after = 0;
+        List<Long> surveyids;
+        do {
+            surveyids = jdbcTemplate.queryForList(FIND_SURVEYS, new MapSqlParameterSource()
+                    .addValue("after", after)
+                    .addValue("limit", chunkSize), Long.class);
+            if (surveyids.isEmpty())
+                break;
+            List<Long> chunk = surveyids;
+            chunks.add(CompletableFuture.supplyAsync(() -> reconcile(chunk), workers)
+                    .exceptionally(e -> {
+                        log.error("Reconciling progress of surveys {}..{} failed", chunk.get(0), chunk.get(chunk.size() - 1), e);
+                        return 0;
+                    }));
+            after = surveyids.get(surveyids.size() - 1);
+        } while (surveyids.size() == chunkSize);
+
+        long fixed = 0;
+        for (CompletableFuture<Integer> chunk : chunks)
+            fixed += chunk.join();
+        corrected.add(fixed);
+        return fixed;
+    }
+
+    int reconcile(List<Long> surveyids) {
+        MapSqlParameterSource params = new MapSqlParameterSource("surveyids", surveyids);
+        return snapshot.execute(status -> {
+            Map<Key, Long> diff = new HashMap<>();
+            jdbcTemplate.query(COUNT_RECIPIENTS, params, (RowCallbackHandler) rs -> diff.merge(
+                    new Key(rs.getLong("surveyid"), rs.getInt("status")), rs.getLong("recipients"), Long::sum));
+            jdbcTemplate.query(COUNTERS, params, (RowCallbackHandler) rs -> diff.merge(
+                    new Key(rs.getLong("surveyid"), rs.getInt("status")), -rs.getLong("recipients"), Long::sum));
+            SurveyProgressService.Changes changes = new SurveyProgressService.Changes();
+            int fixed = 0;
+            for (Map.Entry<Key, Long> entry : diff.entrySet()) {
+                if (entry.getValue() == 0)
+                    continue;
+                changes.add(entry.getKey().surveyid(), Status.values()[entry.getKey().status()], entry.getValue());
+                fixed++;
+            }
+            progressService.apply(changes);
+            return fixed;
+        });
+    }
+
+    public long correctedCount() {
+        return corrected.sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.feign.SurveyProgress;
+import com.ust.Survey_api.model.RecipientStatusCount;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.repository.RecipientStatusCountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-survey recipient counts for each status, kept in survey_progress (one row
+ * per survey and status). Every code path that changes recipient statuses
+ * collects its moves in {@link Changes} and applies them in the same
+ * transaction, one upsert per (survey, status) touched, so the counters commit
+ * or roll back with the statuses they describe. A survey's first change creates
+ * its rows in that same transaction. Rows are written in key order so
+ * concurrent writers lock them in the same order. Progress reads only
+ * these rows; {@link SurveyProgressReconciler} corrects any drift.
+ */
+@Service
+public class SurveyProgressService {
+
+    private record Key(long surveyid, int status) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int bySurvey = Long.compare(surveyid, other.surveyid);
+            return bySurvey != 0 ? bySurvey : Integer.compare(status, other.status);
+        }
+    }
+
+    /** Status moves collected by one transaction. Not thread-safe. */
+    public static final class Changes {
+        private final Map<Key, Long> deltas = new TreeMap<>();
+
+        public Changes add(long surveyid, Status status, long recipients) {
+            if (status != null && recipients != 0)
+                deltas.merge(new Key(surveyid, status.ordinal()), recipients, Long::sum);
+            return this;
+        }
+
+        public Changes move(long surveyid, Status from, Status to) {
+            if (from != to) {
+                add(surveyid, from, -1);
+                add(surveyid, to, 1);
+            }
+            return this;
+        }
+    }
+
+    @Autowired
+    private RecipientStatusCountRepository repository;
+
+    private final TransactionTemplate current;
+    private final CounterUpsert counters;
+
+    public SurveyProgressService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.current = new TransactionTemplate(transactionManager);
+        current.setPropagationBehavior(TransactionDefinition.PROPAGATION_MANDATORY);
+        this.counters = new CounterUpsert(jdbcTemplate, "survey_progress", List.of("surveyid", "status"), "recipients");
+    }
+
+    /** Adds the changes to the counters; must run inside the transaction that changed the statuses. */
+    public void apply(Changes changes) {
+        List<Object[]> rows = new ArrayList<>();
+        changes.deltas.forEach((key, delta) -> {
+            if (delta != 0)
+                rows.add(new Object[]{key.surveyid(), key.status(), delta});
+        });
+        if (rows.isEmpty())
+            return;
+        current.executeWithoutResult(status -> counters.add(rows));
+    }
+
+    /** Every status with its count (zero when absent), read from the counters only. */
+    public SurveyProgress progress(long surveyid) {
+        Map<Status, Long> recipients = new EnumMap<>(Status.class);
+        for (Status status : Status.values())
+            recipients.put(status, 0L);
+        long total = 0;
+        for (RecipientStatusCount count : repository.findBySurveyid(surveyid)) {
+            recipients.put(count.getStatus(), count.getRecipients());
+            total += count.getRecipients();
+        }
+        double responseRate = total == 0 ? 0 : (double) recipients.get(Status.COMPLETED) / total;
+        return new SurveyProgress(surveyid, recipients, total, responseRate);
+    }
+}
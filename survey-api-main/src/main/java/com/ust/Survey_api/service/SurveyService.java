@@ -2,8 +2,10 @@ package com.ust.Survey_api.service;
 
 import com.ust.Survey_api.feign.FullResponse;
 import com.ust.Survey_api.feign.PostDto;
+import com.ust.Survey_api.feign.SurveyPage;
 import com.ust.Survey_api.feign.SurveyRequestDto;
 import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.repository.SurveyFilter;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,9 +15,20 @@ public interface SurveyService {
 
     PostDto addSurvey(SurveyRequestDto survey);
 
-    List<FullResponse> getSurveys();
+    default List<FullResponse> getSurveys() {
+        return getSurveys(true);
+    }
 
-    FullResponse getSurveyById(Long surveyId);
+    // Without setdata no set content is loaded at all, neither snapshot nor AssessmentService.
+    List<FullResponse> getSurveys(boolean withSetdata);
+
+    default FullResponse getSurveyById(Long surveyId) {
+        return getSurveyById(surveyId, true);
+    }
+
+    FullResponse getSurveyById(Long surveyId, boolean withSetdata);
+
+    SurveyPage getSurveyPage(SurveyFilter filter, Long after, int size, boolean withSetdata);
 
     List<Emails> addEmails(Long surveyId, List<String> emails);
 
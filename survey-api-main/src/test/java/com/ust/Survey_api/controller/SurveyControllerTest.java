@@ -1,24 +1,53 @@
 package com.ust.Survey_api.controller;
 
+import com.ust.Survey_api.exception.InvalidResponseException;
+import com.ust.Survey_api.exception.RecipientNotFoundException;
 import com.ust.Survey_api.exception.SetNotFoundException;
+import com.ust.Survey_api.feign.CompanyReport;
+import com.ust.Survey_api.feign.EmailUploadResult;
 import com.ust.Survey_api.feign.FullResponse;
 import com.ust.Survey_api.feign.PostDto;
+import com.ust.Survey_api.feign.RespondentReport;
+import com.ust.Survey_api.feign.QuestionAnswer;
+import com.ust.Survey_api.feign.ResponseSubmission;
+import com.ust.Survey_api.feign.SurveyPage;
+import com.ust.Survey_api.feign.SurveyProgress;
 import com.ust.Survey_api.feign.SurveyRequestDto;
+import com.ust.Survey_api.feign.SurveyResults;
 import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.model.Status;
 import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.SurveyFilter;
 import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.service.EmailImportService;
+import com.ust.Survey_api.service.ExportService;
+import com.ust.Survey_api.service.ReportService;
+import com.ust.Survey_api.service.ResponseIngestionService;
+import com.ust.Survey_api.service.ResponseTally;
+import com.ust.Survey_api.service.SurveyProgressService;
 import com.ust.Survey_api.service.SurveyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -32,6 +61,24 @@ public class SurveyControllerTest {
     @Mock
     private SurveyRepository surveyRepository;
 
+    @Mock
+    private EmailImportService emailImportService;
+
+    @Mock
+    private ResponseIngestionService responseIngestionService;
+
+    @Mock
+    private ResponseTally responseTally;
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private ExportService exportService;
+
+    @Mock
+    private SurveyProgressService progressService;
+
     @InjectMocks
     private SurveyController surveyController;
 
@@ -68,6 +115,132 @@ public class SurveyControllerTest {
         verify(surveyRepository, times(1)).findBySurveyid(anyLong());
     }
 
+    @Test
+    public void testUploadEmails_SetNotFoundException() {
+        when(surveyRepository.findBySurveyid(anyLong())).thenReturn(null);
+
+        assertThrows(SetNotFoundException.class, () ->
+                surveyController.uploadEmails(1L, "text/csv", new ByteArrayInputStream(new byte[0])));
+        verifyNoInteractions(emailImportService);
+    }
+
+    @Test
+    public void testUploadEmails_NdjsonBody() throws Exception {
+        when(surveyRepository.findBySurveyid(anyLong())).thenReturn(new Survey());
+        EmailUploadResult result = new EmailUploadResult(1, 0, 0, List.of());
+        when(emailImportService.importEmails(eq(1L), any(), eq(true))).thenReturn(result);
+
+        ResponseEntity<EmailUploadResult> response = surveyController.uploadEmails(1L, "application/x-ndjson", new ByteArrayInputStream(new byte[0]));
+
+        assertEquals(result, response.getBody());
+    }
+
+    @Test
+    public void testSubmitResponse_Recorded() {
+        ResponseSubmission submission = new ResponseSubmission("a@example.com", List.of(new QuestionAnswer(1L, 2L)));
+        when(responseIngestionService.submit(1L, submission)).thenReturn(CompletableFuture.completedFuture(true));
+
+        ResponseEntity<String> response = surveyController.submitResponse(1L, submission).join();
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    @Test
+    public void testSubmitResponse_AlreadySubmitted() {
+        ResponseSubmission submission = new ResponseSubmission("a@example.com", List.of(new QuestionAnswer(1L, 2L)));
+        when(responseIngestionService.submit(1L, submission)).thenReturn(CompletableFuture.completedFuture(false));
+
+        ResponseEntity<String> response = surveyController.submitResponse(1L, submission).join();
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    public void testSubmitResponse_ErrorStatuses() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                surveyController.handleInvalidResponse(new InvalidResponseException("no answers")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+                surveyController.handleRecipientNotFound(new RecipientNotFoundException("no recipient")).getStatusCode());
+    }
+
+    @Test
+    public void testGetResults_Success() {
+        when(surveyRepository.findBySurveyid(1L)).thenReturn(new Survey());
+        Map<Long, Map<Long, Long>> counts = Map.of(1L, Map.of(2L, 5L));
+        when(responseTally.results(1L)).thenReturn(counts);
+
+        ResponseEntity<SurveyResults> response = surveyController.getResults(1L);
+
+        assertEquals(new SurveyResults(1L, counts), response.getBody());
+    }
+
+    @Test
+    public void testGetResults_SetNotFoundException() {
+        when(surveyRepository.findBySurveyid(anyLong())).thenReturn(null);
+
+        assertThrows(SetNotFoundException.class, () -> surveyController.getResults(1L));
+        verifyNoInteractions(responseTally);
+    }
+
+    @Test
+    public void testGetProgress_ReadsCountersOnly() {
+        SurveyProgress progress = new SurveyProgress(1L, Map.of(Status.SENT, 3L, Status.COMPLETED, 1L), 4, 0.25);
+        when(progressService.progress(1L)).thenReturn(progress);
+
+        assertEquals(progress, surveyController.getProgress(1L).getBody());
+        verifyNoInteractions(surveyRepository, surveyService);
+    }
+
+    @Test
+    public void testGetProgress_SetNotFoundException() {
+        when(progressService.progress(1L)).thenReturn(new SurveyProgress(1L, Map.of(), 0, 0));
+        when(surveyRepository.findBySurveyid(anyLong())).thenReturn(null);
+
+        assertThrows(SetNotFoundException.class, () -> surveyController.getProgress(1L));
+    }
+
+    @Test
+    public void testGetRespondentReports() {
+        List<RespondentReport> reports = List.of(new RespondentReport(1L, "a@example.com", List.of()));
+        when(reportService.respondentReports(1L)).thenReturn(reports);
+
+        assertEquals(reports, surveyController.getRespondentReports(1L).getBody());
+    }
+
+    @Test
+    public void testGetCompanyReport() {
+        CompanyReport report = new CompanyReport("Acme", 2, List.of());
+        when(reportService.companyReport("Acme")).thenReturn(report);
+
+        assertEquals(report, surveyController.getCompanyReport("Acme").getBody());
+    }
+
+    @Test
+    public void testExportEmails_GzippedNdjson() throws Exception {
+        when(surveyRepository.findBySurveyid(1L)).thenReturn(new Survey());
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        AsyncWebRequest asyncRequest = mock(AsyncWebRequest.class);
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncRequest);
+
+        ResponseEntity<StreamingResponseBody> response = surveyController.exportEmails(1L, "ndjson", true, request);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        assertEquals("application/x-ndjson;charset=UTF-8", response.getHeaders().getContentType().toString());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("attachment; filename=\"survey-1-recipients.ndjson\"", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        verify(exportService).exportRecipients(eq(1L), eq(ExportService.Format.NDJSON), eq(true), any());
+        verify(asyncRequest).setTimeout(Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    public void testExportResponses_SetNotFoundException() {
+        when(surveyRepository.findBySurveyid(anyLong())).thenReturn(null);
+
+        assertThrows(SetNotFoundException.class, () -> surveyController.exportResponses(1L, "csv", false, new MockHttpServletRequest()));
+        verifyNoInteractions(exportService);
+    }
+
     @Test
     public void testAddEmails_Success() {
         // Mocking the repository to return a valid Survey object
@@ -143,21 +316,33 @@ public class SurveyControllerTest {
     @Test
     public void testGetSurveys_Success() {
         FullResponse fullResponse = new FullResponse(1L, 1L, "requestor", "companyName", 1L, null, null, null);
-        when(surveyService.getSurveys()).thenReturn(Arrays.asList(fullResponse));
+        when(surveyService.getSurveys(true)).thenReturn(Arrays.asList(fullResponse));
 
-        ResponseEntity<List<FullResponse>> response = surveyController.getSurveys();
+        ResponseEntity<List<FullResponse>> response = surveyController.getSurveys(null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
     }
 
+    @Test
+    public void testGetSurveyPage_PassesFiltersAndCursor() {
+        SurveyPage page = new SurveyPage(Collections.emptyList(), null);
+        when(surveyService.getSurveyPage(any(SurveyFilter.class), eq(10L), eq(50), eq(false))).thenReturn(page);
+
+        ResponseEntity<SurveyPage> response = surveyController.getSurveyPage(10L, 50, "Acme", null, 3L,
+                LocalDate.of(2024, 1, 1), null, List.of("surveyid"));
+
+        assertEquals(page, response.getBody());
+        verify(surveyService).getSurveyPage(new SurveyFilter("Acme", null, 3L, LocalDate.of(2024, 1, 1), null), 10L, 50, false);
+    }
+
     @Test
     public void testGetSurveyById_Success() {
         FullResponse fullResponse = new FullResponse(1L, 1L, "requestor", "companyName", 1L, null, null, null);
-        when(surveyService.getSurveyById(anyLong())).thenReturn(fullResponse);
+        when(surveyService.getSurveyById(anyLong(), eq(true))).thenReturn(fullResponse);
 
-        ResponseEntity<?> response = surveyController.getSurveyById(1L);
+        ResponseEntity<?> response = surveyController.getSurveyById(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -166,10 +351,31 @@ public class SurveyControllerTest {
 
     @Test
     public void testGetSurveyById_SetNotFoundException() {
-        when(surveyService.getSurveyById(anyLong())).thenThrow(new SetNotFoundException("Invalid surveyId"));
+        when(surveyService.getSurveyById(anyLong(), eq(true))).thenThrow(new SetNotFoundException("Invalid surveyId"));
 
         assertThrows(SetNotFoundException.class, () -> {
-            surveyController.getSurveyById(1L);
+            surveyController.getSurveyById(1L, null);
         });
     }
+
+    @Test
+    public void testGetSurveys_FieldsWithoutSetdataSkipSetdata() {
+        FullResponse fullResponse = new FullResponse(1L, 1L, "requestor", "companyName", 1L, null, null, null);
+        when(surveyService.getSurveys(false)).thenReturn(Arrays.asList(fullResponse));
+
+        ResponseEntity<List<FullResponse>> response = surveyController.getSurveys(List.of("surveyid", "requestor"));
+
+        assertEquals(1, response.getBody().size());
+        verify(surveyService, never()).getSurveys(true);
+    }
+
+    @Test
+    public void testGetSurveyById_FieldsWithSetdataLoadSetdata() {
+        FullResponse fullResponse = new FullResponse(1L, 1L, "requestor", "companyName", 1L, null, null, null);
+        when(surveyService.getSurveyById(1L, true)).thenReturn(fullResponse);
+
+        surveyController.getSurveyById(1L, List.of("requestor", "setdata"));
+
+        verify(surveyService, times(1)).getSurveyById(1L, true);
+    }
 }
@@ -0,0 +1,95 @@
+package com.ust.Survey_api.feign;
+
+import feign.FeignException;
+import feign.Request;
+import feign.codec.DecodeException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AssessmentClientGuardTest {
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Request request = Request.create(Request.HttpMethod.GET, "/assessments/set-id/1", Map.of(), null, StandardCharsets.UTF_8, null);
+
+    @Test
+    public void testCall_BreakerOpensAndRejectsWithoutCalling() {
+        AssessmentClientGuard guard = new AssessmentClientGuard(50, Duration.ofSeconds(2), 4, Duration.ofMinutes(1), 10, meterRegistry);
+        for (int i = 0; i < 4; i++)
+            assertThrows(FeignException.class, () -> guard.call(() -> {
+                throw new FeignException.ServiceUnavailable("down", request, null, null);
+            }));
+
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+        assertThrows(CallNotPermittedException.class, () -> guard.call(calls::incrementAndGet));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void testCall_ClientErrorsDoNotOpenBreaker() {
+        AssessmentClientGuard guard = new AssessmentClientGuard(50, Duration.ofSeconds(2), 4, Duration.ofMinutes(1), 10, meterRegistry);
+        for (int i = 0; i < 10; i++)
+            assertThrows(FeignException.class, () -> guard.call(() -> {
+                throw new FeignException.NotFound("no set", request, null, null);
+            }));
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+    }
+
+    @Test
+    public void testCall_UndecodableBodiesDoNotOpenBreaker() {
+        AssessmentClientGuard guard = new AssessmentClientGuard(50, Duration.ofSeconds(2), 4, Duration.ofMinutes(1), 10, meterRegistry);
+        for (int i = 0; i < 10; i++)
+            assertThrows(DecodeException.class, () -> guard.call(() -> {
+                throw new DecodeException(200, "set id is invalid", request);
+            }));
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+        assertFalse(AssessmentClientGuard.isUnavailable(new DecodeException(200, "set id is invalid", request)));
+    }
+
+    @Test
+    public void testCall_BulkheadRejectsBeyondLimit() throws Exception {
+        AssessmentClientGuard guard = new AssessmentClientGuard(50, Duration.ofSeconds(2), 4, Duration.ofMinutes(1), 1, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> guard.call(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(BulkheadFullException.class, () -> guard.call(() -> "second"));
+        release.countDown();
+
+        assertEquals("done", inFlight.get(5, TimeUnit.SECONDS));
+        assertEquals(1, guard.rejectedCalls());
+        assertTrue(AssessmentClientGuard.isUnavailable(new FeignException.ServiceUnavailable("down", request, null, null)));
+        assertFalse(AssessmentClientGuard.isUnavailable(new FeignException.NotFound("no set", request, null, null)));
+    }
+}
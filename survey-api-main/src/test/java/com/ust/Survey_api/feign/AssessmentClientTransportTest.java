@@ -0,0 +1,135 @@
+package com.ust.Survey_api.feign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the Feign transport that application.properties wires up: the pooled
+ * HttpClient 5 client, its pool limits, and that it reuses one connection and
+ * negotiates gzip against a local stub of /assessments/set-id/{setid}.
+ */
+public class AssessmentClientTransportTest {
+
+    private static final int REQUESTS = 20;
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(new ConfigDataApplicationContextInitializer())
+            .withConfiguration(AutoConfigurations.of(FeignAutoConfiguration.class));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger gzipped = new AtomicInteger();
+    private final ExecutorService stubThreads = Executors.newFixedThreadPool(4);
+
+    private HttpServer stub;
+    private byte[] setJson;
+    private byte[] setGzip;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        setJson = mapper.writeValueAsBytes(List.of(new SetNameDto(1L, "How mature is the practice?", List.of(
+                new Answer(1L, "Ad hoc", "Write down the current process"),
+                new Answer(2L, "Managed", "Measure it and automate")))));
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(setJson);
+        }
+        setGzip = gzip.toByteArray();
+
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/assessments/set-id/", this::serveSet);
+        stub.setExecutor(stubThreads);
+        stub.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        stub.stop(0);
+        stubThreads.shutdownNow();
+        assertTrue(stubThreads.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWiredClient_IsPooledHttpClient5() {
+        contextRunner.run(context -> {
+            assertInstanceOf(ApacheHttp5Client.class, context.getBean(Client.class));
+            PoolingHttpClientConnectionManager pool = assertInstanceOf(PoolingHttpClientConnectionManager.class,
+                    context.getBean(HttpClientConnectionManager.class));
+            assertEquals(200, pool.getMaxTotal());
+            assertEquals(50, pool.getDefaultMaxPerRoute());
+        });
+    }
+
+    @Test
+    public void testWiredClient_ReusesConnectionAndNegotiatesGzip() {
+        contextRunner.run(context -> {
+            AssessmentClient client = feignClient(context.getBean(Client.class));
+
+            for (int i = 0; i < REQUESTS; i++)
+                assertEquals(1, client.getSet((long) i).getBody().size());
+
+            assertEquals(REQUESTS, gzipped.get());
+            assertEquals(1, clientPorts.size(), "opened " + clientPorts.size() + " connections");
+            PoolingHttpClientConnectionManager pool = (PoolingHttpClientConnectionManager) context.getBean(HttpClientConnectionManager.class);
+            assertEquals(0, pool.getTotalStats().getLeased());
+        });
+    }
+
+    private AssessmentClient feignClient(Client transport) {
+        return Feign.builder()
+                .client(transport)
+                .contract(new SpringMvcContract())
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(
+                        () -> new HttpMessageConverters(new MappingJackson2HttpMessageConverter(mapper)))))
+                .target(AssessmentClient.class, "http://127.0.0.1:" + stub.getAddress().getPort());
+    }
+
+    private void serveSet(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        byte[] body = setJson;
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = setGzip;
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            gzipped.incrementAndGet();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.ust.Survey_api.feign;
+
+import com.ust.Survey_api.exception.AssessmentUnavailableException;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingAssessmentClientTest {
+
+    @Mock
+    private AssessmentClient remote;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private CachingAssessmentClient client;
+
+    private final List<SetNameDto> set1 = List.of(new SetNameDto(1L, "Question 1", List.of(new Answer(1L, "Answer 1", "Suggestion 1"))));
+    private final List<SetNameDto> set2 = List.of(new SetNameDto(2L, "Question 2", List.of(new Answer(2L, "Answer 2", "Suggestion 2"))));
+
+    @BeforeEach
+    public void setUp() {
+        client = new CachingAssessmentClient(remote, 100, Duration.ofMinutes(30), Duration.ofMinutes(5), guard(), meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.shutdownRefreshPool();
+    }
+
+    @Test
+    public void testGetSet_SecondCallIsServedFromCache() {
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1));
+
+        assertEquals(set1, client.getSet(1L).getBody());
+        assertEquals(set1, client.getSet(1L).getBody());
+
+        verify(remote, times(1)).getSet(1L);
+        assertEquals(1, client.stats().hitCount());
+    }
+
+    @Test
+    public void testGetSets_LoadsOnlyMissingSets() {
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1));
+        when(remote.getSets(anyCollection())).thenReturn(ResponseEntity.ok(Map.of(2L, set2)));
+        client.getSet(1L);
+
+        Map<Long, List<SetNameDto>> sets = client.getSets(List.of(1L, 2L, 3L)).getBody();
+
+        assertEquals(Map.of(1L, set1, 2L, set2), sets);
+        verify(remote).getSets(argThat((Collection<Long> ids) -> ids.size() == 2 && ids.containsAll(List.of(2L, 3L))));
+    }
+
+    @Test
+    public void testGetSet_FailureIsNotCached() {
+        when(remote.getSet(1L)).thenThrow(new RuntimeException("down")).thenReturn(ResponseEntity.ok(set1));
+
+        assertThrows(RuntimeException.class, () -> client.getSet(1L));
+        assertEquals(set1, client.getSet(1L).getBody());
+    }
+
+    @Test
+    public void testEvict_ForcesReload() {
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1), ResponseEntity.ok(set2));
+        client.getSet(1L);
+
+        client.evict(1L);
+
+        assertEquals(set2, client.getSet(1L).getBody());
+        verify(remote, times(2)).getSet(1L);
+    }
+
+    @Test
+    public void testGetSet_ReloadAfterEvictJoinsRefreshInFlight() throws Exception {
+        // Caffeine already collapses concurrent misses on one key, but not a miss that
+        // follows an evict while a background refresh of the same set is still running.
+        client.shutdownRefreshPool();
+        client = new CachingAssessmentClient(remote, 100, Duration.ofMinutes(30), Duration.ofNanos(1), guard(), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1)).thenAnswer(invocation -> {
+            release.await();
+            return ResponseEntity.ok(set2);
+        });
+        client.getSet(1L);
+        assertEquals(set1, client.getSet(1L).getBody());
+        verify(remote, timeout(1000).times(2)).getSet(1L);
+
+        client.evict(1L);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResponseEntity<List<SetNameDto>>> reload = caller.submit(() -> client.getSet(1L));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (client.collapsedCalls() == 0 && System.nanoTime() < deadline)
+                Thread.onSpinWait();
+            release.countDown();
+
+            assertEquals(set2, reload.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, client.collapsedCalls());
+            verify(remote, times(2)).getSet(1L);
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetSet_ServesStaleDataWhileRefreshing() {
+        client.shutdownRefreshPool();
+        client = new CachingAssessmentClient(remote, 100, Duration.ofMinutes(30), Duration.ofNanos(1), guard(), meterRegistry);
+        CountDownLatch reloadMayFinish = new CountDownLatch(1);
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1)).thenAnswer(invocation -> {
+            reloadMayFinish.await();
+            return ResponseEntity.ok(set2);
+        });
+        client.getSet(1L);
+
+        // The stale entry is returned at once while it is reloaded in the background.
+        assertEquals(set1, client.getSet(1L).getBody());
+        reloadMayFinish.countDown();
+        verify(remote, timeout(1000).times(2)).getSet(1L);
+    }
+
+    @Test
+    public void testGetSet_OutageServesLastKnownData() {
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1)).thenThrow(unavailable());
+        client.getSet(1L);
+        client.evict(1L);
+
+        assertEquals(set1, client.getSet(1L).getBody());
+        assertEquals(1, client.fallbacks());
+    }
+
+    @Test
+    public void testGetSet_OutageWithoutLastKnownData() {
+        when(remote.getSet(1L)).thenThrow(unavailable());
+
+        assertThrows(AssessmentUnavailableException.class, () -> client.getSet(1L));
+    }
+
+    @Test
+    public void testGetSet_ClientErrorIsNotAnOutage() {
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1)).thenThrow(new FeignException.NotFound("no set", request(), null, null));
+        client.getSet(1L);
+        client.evict(1L);
+
+        assertThrows(FeignException.NotFound.class, () -> client.getSet(1L));
+        assertEquals(0, client.fallbacks());
+    }
+
+    @Test
+    public void testGetSets_OutageServesLastKnownData() {
+        when(remote.getSet(1L)).thenReturn(ResponseEntity.ok(set1));
+        when(remote.getSets(anyCollection())).thenThrow(unavailable());
+        client.getSet(1L);
+        client.evict(1L);
+
+        assertEquals(Map.of(1L, set1), client.getSets(List.of(1L, 2L)).getBody());
+    }
+
+    private AssessmentClientGuard guard() {
+        return new AssessmentClientGuard(50, Duration.ofSeconds(2), 20, Duration.ofSeconds(30), 20, meterRegistry);
+    }
+
+    private static FeignException unavailable() {
+        return new FeignException.ServiceUnavailable("down", request(), null, null);
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "/assessments/set-id/1", Map.of(), null, StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.ust.Survey_api.feign;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 32;
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testExecute_ParallelCallersShareOneCall() throws Exception {
+        AtomicInteger downstream = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(1L, () -> {
+            downstream.incrementAndGet();
+            await(release);
+            return "set 1";
+        });
+        awaitCallers();
+        release.countDown();
+
+        for (Future<String> result : results)
+            assertEquals("set 1", result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, downstream.get());
+        assertEquals(CALLERS - 1, singleFlight.collapsedCount());
+    }
+
+    @Test
+    public void testExecute_ParallelCallersShareOneFailure() throws Exception {
+        AtomicInteger downstream = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(1L, () -> {
+            downstream.incrementAndGet();
+            await(release);
+            throw new IllegalStateException("AssessmentService unavailable");
+        });
+        awaitCallers();
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(1, downstream.get());
+    }
+
+    @Test
+    public void testExecute_CompletedCallIsNotReused() {
+        AtomicInteger downstream = new AtomicInteger();
+
+        singleFlight.execute(1L, () -> "call " + downstream.incrementAndGet());
+        String second = singleFlight.execute(1L, () -> "call " + downstream.incrementAndGet());
+
+        assertEquals("call 2", second);
+        assertEquals(0, singleFlight.collapsedCount());
+    }
+
+    @Test
+    public void testExecute_DifferentKeysAreNotCollapsed() {
+        assertEquals("1", singleFlight.execute(1L, () -> "1"));
+        assertEquals("2", singleFlight.execute(2L, () -> "2"));
+        assertEquals(0, singleFlight.collapsedCount());
+    }
+
+    private List<Future<String>> runConcurrently(long key, Supplier<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++)
+            results.add(callers.submit(() -> singleFlight.execute(key, call)));
+        return results;
+    }
+
+    // Holds the in-flight call until every caller has reached execute().
+    private void awaitCallers() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.callCount() < CALLERS && System.nanoTime() < deadline)
+            Thread.sleep(1);
+        assertEquals(CALLERS, singleFlight.callCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
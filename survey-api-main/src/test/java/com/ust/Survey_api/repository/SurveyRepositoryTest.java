@@ -0,0 +1,61 @@
+package com.ust.Survey_api.repository;
+
+import com.ust.Survey_api.model.Survey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class SurveyRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private SurveyRepository repo;
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < 10; i++)
+            repo.save(new Survey(null, i, "requestor" + (i % 2), i < 6 ? "Acme" : "Globex", (long) (i % 3), DAY.plusDays(i), null));
+    }
+
+    @Test
+    public void testKeysetPages_CoverFilteredSurveysOnce() {
+        SurveyFilter filter = new SurveyFilter("Acme", null, null, null, null);
+        List<Survey> seen = new ArrayList<>();
+        Long after = null;
+        do {
+            List<Survey> page = page(filter, after, 4);
+            seen.addAll(page);
+            after = page.size() == 4 ? page.get(3).getSurveyid() : null;
+        } while (after != null);
+
+        assertEquals(6, seen.size());
+        assertTrue(seen.stream().allMatch(survey -> survey.getCompanyName().equals("Acme")));
+        for (int i = 1; i < seen.size(); i++)
+            assertTrue(seen.get(i - 1).getSurveyid() < seen.get(i).getSurveyid());
+    }
+
+    @Test
+    public void testFilters_Combine() {
+        SurveyFilter filter = new SurveyFilter(null, "requestor0", 0L, DAY.plusDays(1), DAY.plusDays(8));
+
+        List<Survey> surveys = page(filter, null, 10);
+
+        // i in 1..8, even (requestor0) and i % 3 == 0 (setid 0): only i = 6
+        assertEquals(1, surveys.size());
+        assertEquals(DAY.plusDays(6), surveys.get(0).getCreatedDate());
+    }
+
+    private List<Survey> page(SurveyFilter filter, Long after, int size) {
+        return repo.findBy(filter.after(after), query -> query.sortBy(Sort.by("surveyid")).limit(size).all());
+    }
+}
@@ -0,0 +1,26 @@
+package com.ust.Survey_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CounterUpsertTest {
+
+    @Test
+    public void testMysql_AddsThroughTheNewRowAlias() {
+        assertEquals("insert into survey_answer_tally (surveyid, question_id, answer_id, responses) values (?, ?, ?, ?) as new"
+                        + " on duplicate key update responses = survey_answer_tally.responses + new.responses",
+                CounterUpsert.mysql("survey_answer_tally", List.of("surveyid", "question_id", "answer_id"), "responses"));
+    }
+
+    @Test
+    public void testMerge_InsertsOrAddsPerRow() {
+        assertEquals("merge into survey_progress t using (values (cast(? as bigint), cast(? as bigint), cast(? as bigint)))"
+                        + " s (surveyid, status, recipients) on t.surveyid = s.surveyid and t.status = s.status"
+                        + " when matched then update set recipients = t.recipients + s.recipients"
+                        + " when not matched then insert (surveyid, status, recipients) values (s.surveyid, s.status, s.recipients)",
+                CounterUpsert.merge("survey_progress", List.of("surveyid", "status"), "recipients"));
+    }
+}
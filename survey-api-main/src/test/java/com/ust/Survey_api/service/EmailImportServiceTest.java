@@ -0,0 +1,131 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.feign.EmailUploadResult;
+import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "survey.emails.import.chunk-size=3"
+})
+@Import({EmailImportService.class, SurveyProgressService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmailImportServiceTest {
+
+    @Autowired
+    private EmailImportService importService;
+
+    @Autowired
+    private SurveyProgressService progressService;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        emailRepository.deleteAll();
+        surveyRepository.deleteAll();
+    }
+
+    @Test
+    public void testImportEmails_Csv() throws Exception {
+        long surveyid = survey();
+        emailRepository.save(new Emails(null, "existing@example.com", surveyid, Status.PENDING));
+        String csv = """
+                email
+                a@example.com
+                "b@example.com",Bob
+                not-an-address
+                EXISTING@example.com
+                a@example.com
+
+                c@example.org
+                """;
+
+        EmailUploadResult result = importService.importEmails(surveyid, body(csv), false);
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(1, result.getInvalid());
+        assertEquals(List.of("not-an-address"), result.getInvalidSamples());
+        List<Emails> stored = emailRepository.findBySurveyid(surveyid);
+        assertEquals(4, stored.size());
+        assertTrue(stored.stream().allMatch(email -> email.getStatus() == Status.PENDING));
+        assertEquals(3, progressService.progress(surveyid).getRecipients().get(Status.PENDING));
+    }
+
+    @Test
+    public void testImportEmails_Ndjson() throws Exception {
+        String ndjson = """
+                "a@example.com"
+                {"email": "b@example.com"}
+                {"email": "b@@example.com"}
+                {"email": "c@example.com"
+                d@example.com
+                {"email": "e@example.com"}
+                """;
+        long surveyid = survey();
+
+        EmailUploadResult result = importService.importEmails(surveyid, body(ndjson), true);
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(3, result.getInvalid());
+        assertTrue(result.getInvalidSamples().containsAll(List.of("{\"email\": \"c@example.com\"", "d@example.com")));
+        assertEquals(List.of("a@example.com", "b@example.com", "e@example.com"), emailRepository.findEmailsBySurveyid(surveyid));
+    }
+
+    @Test
+    public void testImportEmails_ConcurrentUploadsInsertEachAddressOnce() {
+        long surveyid = survey();
+        String csv = IntStream.range(0, 30).mapToObj(i -> "user" + i + "@example.com").collect(Collectors.joining("\n"));
+
+        List<EmailUploadResult> results = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return importService.importEmails(surveyid, body(csv), false);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }))
+                .toList().stream().map(CompletableFuture::join).toList();
+
+        assertEquals(30, emailRepository.findBySurveyid(surveyid).size());
+        assertEquals(30, results.stream().mapToLong(EmailUploadResult::getAccepted).sum());
+        assertEquals(90, results.stream().mapToLong(EmailUploadResult::getDuplicates).sum());
+        assertEquals(30, progressService.progress(surveyid).getRecipients().get(Status.PENDING));
+    }
+
+    private long survey() {
+        return surveyRepository.save(new Survey(null, 1L, "requestor", "companyName", 1L, LocalDate.now(), null)).getSurveyid();
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,156 @@
+package com.ust.Survey_api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ust.Survey_api.exception.SetNotFoundException;
+import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.model.SurveyResponse;
+import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.repository.SurveyResponseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "survey.export.fetch-size=500"
+})
+@Import(ExportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveyResponseRepository responseRepository;
+
+    @AfterEach
+    public void tearDown() {
+        responseRepository.deleteAll();
+        emailRepository.deleteAll();
+        surveyRepository.deleteAll();
+    }
+
+    @Test
+    public void testExportRecipients_CsvStreamsEveryRow() throws Exception {
+        long surveyid = survey();
+        int recipients = 100_000;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < recipients; i++)
+            rows.add(new Object[]{"user" + i + "@example.com", surveyid, Status.SENT.ordinal()});
+        jdbcTemplate.batchUpdate("insert into survey_details (email, surveyid, status) values (?, ?, ?)", rows);
+
+        LineCounter out = new LineCounter();
+        exportService.exportRecipients(surveyid, ExportService.Format.CSV, false, out);
+
+        assertEquals(recipients + 1, out.lines);
+        assertTrue(out.bytes > recipients * 20L);
+    }
+
+    @Test
+    public void testExportRecipients_CsvQuotesAndNulls() throws Exception {
+        long surveyid = survey();
+        // Addresses written before validation existed can hold anything.
+        jdbcTemplate.update("insert into survey_details (email, surveyid, status) values (?, ?, ?)",
+                "odd,\"name\"@example.com", surveyid, Status.PENDING.ordinal());
+        long id = jdbcTemplate.queryForObject("select id from survey_details where surveyid = ?", Long.class, surveyid);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportRecipients(surveyid, ExportService.Format.CSV, false, out);
+
+        assertEquals("id,email,status,attempts\r\n" + id + ",\"odd,\"\"name\"\"@example.com\",PENDING,\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExportResponses_GzippedNdjson() throws Exception {
+        long surveyid = survey();
+        Emails a = emailRepository.save(new Emails(null, "a@example.com", surveyid, Status.COMPLETED));
+        Emails b = emailRepository.save(new Emails(null, "b@example.com", surveyid, Status.COMPLETED));
+        LocalDateTime at = LocalDateTime.of(2030, 1, 2, 3, 4, 5);
+        responseRepository.saveAll(List.of(
+                new SurveyResponse(null, surveyid, b.getId(), 1L, 11L, at),
+                new SurveyResponse(null, surveyid, a.getId(), 2L, 20L, at),
+                new SurveyResponse(null, surveyid, a.getId(), 1L, 10L, at)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportResponses(surveyid, ExportService.Format.NDJSON, true, out);
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null)
+                lines.add(mapper.readTree(line));
+        }
+        assertEquals(3, lines.size());
+        assertEquals("a@example.com", lines.get(0).get("email").asText());
+        assertEquals(1, lines.get(0).get("questionId").asLong());
+        assertEquals(10, lines.get(0).get("answerId").asLong());
+        assertEquals("2030-01-02T03:04:05", lines.get(0).get("submittedAt").asText());
+        assertEquals(2, lines.get(1).get("questionId").asLong());
+        assertEquals(b.getId(), lines.get(2).get("recipientId").asLong());
+    }
+
+    @Test
+    public void testFormat_Unknown() {
+        assertEquals(ExportService.Format.NDJSON, ExportService.Format.of("ndjson"));
+        assertThrows(SetNotFoundException.class, () -> ExportService.Format.of("xlsx"));
+    }
+
+    private long survey() {
+        return surveyRepository.save(new Survey(null, 1L, "requestor", "companyName", 1L, LocalDate.now(), null)).getSurveyid();
+    }
+
+    // Counts what was written without keeping it.
+    private static class LineCounter extends OutputStream {
+        long lines;
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n')
+                lines++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++)
+                write(b[i]);
+        }
+    }
+}
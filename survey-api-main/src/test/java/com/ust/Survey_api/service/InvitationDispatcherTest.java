@@ -0,0 +1,176 @@
+package com.ust.Survey_api.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.mail.MailSenderAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Runs the dispatcher against GreenMail as the SMTP server.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "survey.dispatch.batch-size=500",
+        "survey.dispatch.concurrency=16",
+        "survey.dispatch.rate-per-second=100000",
+        "survey.dispatch.max-attempts=2",
+        "survey.dispatch.backoff=PT1M"
+})
+@ImportAutoConfiguration(MailSenderAutoConfiguration.class)
+@Import({InvitationDispatcher.class, SmtpInvitationSender.class, SurveyProgressService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class InvitationDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private InvitationDispatcher dispatcher;
+
+    @SpyBean
+    private SmtpInvitationSender sender;
+
+    @Autowired
+    private SurveyProgressService progressService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        emailRepository.deleteAll();
+        surveyRepository.deleteAll();
+    }
+
+    @Test
+    public void testDrain_SendsEveryPendingInvitation() throws Exception {
+        long surveyid = survey();
+        int recipients = 1200;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < recipients; i++)
+            rows.add(new Object[]{"user" + i + "@example.com", surveyid, Status.PENDING.ordinal()});
+        jdbcTemplate.batchUpdate("insert into survey_details (email, surveyid, status) values (?, ?, ?)", rows);
+        emailRepository.save(new Emails(null, "done@example.com", surveyid, Status.APPROVED));
+
+        long sentBefore = dispatcher.sentCount();
+        long attempted = dispatcher.drain();
+
+        assertEquals(recipients, attempted);
+        assertEquals(recipients, dispatcher.sentCount() - sentBefore);
+        assertEquals(0, dispatcher.backlog());
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertEquals(recipients, received.length);
+        assertTrue(String.valueOf(received[0].getContent()).contains("/survey/" + surveyid));
+        List<Emails> stored = emailRepository.findBySurveyid(surveyid);
+        assertEquals(recipients, stored.stream().filter(e -> e.getStatus() == Status.SENT && e.getAttempts() == 1).count());
+        assertEquals(1, stored.stream().filter(e -> e.getStatus() == Status.APPROVED).count());
+        Map<Status, Long> progress = progressService.progress(surveyid).getRecipients();
+        assertEquals(recipients, progress.get(Status.SENT));
+        assertEquals(0, progress.get(Status.SENDING));
+    }
+
+    @Test
+    public void testDrain_RetriesWithBackoffThenFails() {
+        long surveyid = survey();
+        Emails bounced = emailRepository.save(new Emails(null, "bounced@example.com", surveyid, Status.PENDING));
+        long retriedBefore = dispatcher.retriedCount();
+        long failedBefore = dispatcher.failedCount();
+        doReturn(Map.of(bounced.getId(), "550 mailbox unavailable")).when(sender).send(anyList());
+
+        assertEquals(1, dispatcher.drain());
+        Emails retry = emailRepository.findById(bounced.getId()).orElseThrow();
+        assertEquals(Status.PENDING, retry.getStatus());
+        assertEquals(1, retry.getAttempts());
+        assertTrue(retry.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(50)));
+
+        // Not due yet
+        assertEquals(0, dispatcher.drain());
+
+        jdbcTemplate.update("update survey_details set next_attempt_at = ? where id = ?", LocalDateTime.now().minusSeconds(1), bounced.getId());
+        assertEquals(1, dispatcher.drain());
+        Emails failed = emailRepository.findById(bounced.getId()).orElseThrow();
+        assertEquals(Status.FAILED, failed.getStatus());
+        assertEquals(2, failed.getAttempts());
+        assertEquals(1, dispatcher.retriedCount() - retriedBefore);
+        assertEquals(1, dispatcher.failedCount() - failedBefore);
+        assertEquals(1, progressService.progress(surveyid).getRecipients().get(Status.FAILED));
+        assertEquals(0, smtp.getReceivedMessages().length);
+    }
+
+    @Test
+    public void testDrain_SkipsRetriesOfClosedSurveys() {
+        long surveyid = survey();
+        Emails bounced = emailRepository.save(new Emails(null, "bounced@example.com", surveyid, Status.PENDING));
+        doReturn(Map.of(bounced.getId(), "450 try again later")).when(sender).send(anyList());
+        assertEquals(1, dispatcher.drain());
+
+        jdbcTemplate.update("update survey set closed_at = ? where surveyid = ?", LocalDateTime.now(), surveyid);
+        jdbcTemplate.update("update survey_details set next_attempt_at = ? where id = ?", LocalDateTime.now().minusSeconds(1), bounced.getId());
+
+        assertEquals(0, dispatcher.drain());
+        Emails retry = emailRepository.findById(bounced.getId()).orElseThrow();
+        assertEquals(Status.PENDING, retry.getStatus());
+        assertEquals(1, retry.getAttempts());
+        assertEquals(0, smtp.getReceivedMessages().length);
+    }
+
+    @Test
+    public void testDrain_ReclaimsLapsedClaims() {
+        long surveyid = survey();
+        Emails claimed = new Emails(null, "claimed@example.com", surveyid, Status.SENDING, 0, LocalDateTime.now().minusMinutes(1));
+        Emails inFlight = new Emails(null, "in-flight@example.com", surveyid, Status.SENDING, 0, LocalDateTime.now().plusMinutes(5));
+        emailRepository.saveAll(List.of(claimed, inFlight));
+
+        assertEquals(1, dispatcher.drain());
+        assertEquals(Status.SENT, emailRepository.findById(claimed.getId()).orElseThrow().getStatus());
+        assertEquals(Status.SENDING, emailRepository.findById(inFlight.getId()).orElseThrow().getStatus());
+        assertEquals(1, progressService.progress(surveyid).getRecipients().get(Status.SENT));
+        assertEquals(1, dispatcher.backlog());
+    }
+
+    @Test
+    public void testBackoff_DoublesUpToMax() {
+        assertEquals(60, dispatcher.backoff(1).toSeconds());
+        assertEquals(120, dispatcher.backoff(2).toSeconds());
+        assertEquals(240, dispatcher.backoff(3).toSeconds());
+        assertEquals(3600, dispatcher.backoff(30).toSeconds());
+    }
+
+    private long survey() {
+        return surveyRepository.save(new Survey(null, 1L, "requestor", "companyName", 1L, LocalDate.now(), null)).getSurveyid();
+    }
+}
@@ -0,0 +1,207 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.exception.SetNotFoundException;
+import com.ust.Survey_api.feign.Answer;
+import com.ust.Survey_api.feign.AssessmentClient;
+import com.ust.Survey_api.feign.CompanyRecommendation;
+import com.ust.Survey_api.feign.CompanyReport;
+import com.ust.Survey_api.feign.QuestionAnswer;
+import com.ust.Survey_api.feign.Recommendation;
+import com.ust.Survey_api.feign.RespondentReport;
+import com.ust.Survey_api.feign.SetNameDto;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.AnswerTallyRepository;
+import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.repository.SurveyResponseRepository;
+import com.ust.Survey_api.repository.SurveySetSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ReportService.class, ResponseTally.class, SetSnapshotCodec.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReportServiceTest {
+
+    private static final int QUESTIONS = 10;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ResponseTally tally;
+
+    @SpyBean
+    private SetSnapshotCodec snapshotCodec;
+
+    @MockBean
+    private AssessmentClient client;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private SurveySetSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveyResponseRepository responseRepository;
+
+    @Autowired
+    private AnswerTallyRepository tallyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        responseRepository.deleteAll();
+        tallyRepository.deleteAll();
+        snapshotRepository.deleteAll();
+        emailRepository.deleteAll();
+        surveyRepository.deleteAll();
+    }
+
+    @Test
+    public void testRespondentReports_LooksUpSuggestionsInMemory() {
+        long surveyid = survey("Acme", set());
+        int respondents = 10_000;
+        List<Object[]> recipients = new ArrayList<>();
+        for (int i = 0; i < respondents; i++)
+            recipients.add(new Object[]{"user" + i + "@example.com", surveyid, Status.COMPLETED.ordinal()});
+        jdbcTemplate.batchUpdate("insert into survey_details (email, surveyid, status) values (?, ?, ?)", recipients);
+        List<Object[]> answers = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Long recipientId : jdbcTemplate.queryForList("select id from survey_details where surveyid = ?", Long.class, surveyid))
+            for (long q = 1; q <= QUESTIONS; q++)
+                answers.add(new Object[]{surveyid, recipientId, q, q * 10 + recipientId % 2, now});
+        jdbcTemplate.batchUpdate("insert into survey_response (surveyid, recipient_id, question_id, answer_id, submitted_at) values (?, ?, ?, ?, ?)", answers);
+
+        List<RespondentReport> reports = reportService.respondentReports(surveyid);
+
+        assertEquals(respondents, reports.size());
+        RespondentReport first = reports.get(0);
+        assertEquals(QUESTIONS, first.getRecommendations().size());
+        Recommendation recommendation = first.getRecommendations().get(0);
+        long answerId = 10 + first.getRecipientId() % 2;
+        assertEquals(new Recommendation(1L, "Question 1", answerId, "Answer " + answerId, "Do " + answerId), recommendation);
+        verifyNoInteractions(client);
+    }
+
+    @Test
+    public void testTable_SharedBySurveysWithTheSameSetContent() {
+        // Set content no other test uses, since the tables outlive a test
+        List<SetNameDto> set = set().subList(0, QUESTIONS - 1);
+        Survey first = surveyRepository.findBySurveyid(survey("Acme", set));
+        Survey second = surveyRepository.findBySurveyid(survey("Globex", set));
+
+        SuggestionTable table = reportService.table(first);
+
+        assertSame(table, reportService.table(second));
+        assertEquals(QUESTIONS - 1, table.questionCount());
+        verify(snapshotCodec, times(1)).decode(any());
+    }
+
+    @Test
+    public void testTable_LegacySurveyUsesLiveSet() {
+        Survey legacy = surveyRepository.save(new Survey(null, 1L, "requestor", "Acme", 7L, LocalDate.now(), null));
+        Survey sameSet = surveyRepository.save(new Survey(null, 1L, "requestor", "Globex", 7L, LocalDate.now(), null));
+        when(client.getSet(7L)).thenReturn(ResponseEntity.ok(set()));
+
+        SuggestionTable table = reportService.table(legacy);
+
+        assertEquals("Do 11", table.lookup(1L, 11L).suggestion());
+        assertSame(table, reportService.table(legacy));
+        assertSame(table, reportService.table(sameSet));
+        verify(client, times(1)).getSet(7L);
+    }
+
+    @Test
+    public void testCompanyReport_MergesSurveysMostChosenFirst() {
+        long first = survey("Acme", set());
+        long second = survey("Acme", set());
+        survey("Globex", set());
+        tally.record(new ResponseTally.Changes().add(first, List.of(new QuestionAnswer(1L, 10L), new QuestionAnswer(2L, 21L))));
+        tally.record(new ResponseTally.Changes().add(first, List.of(new QuestionAnswer(1L, 11L), new QuestionAnswer(2L, 21L))));
+        tally.record(new ResponseTally.Changes().add(second, List.of(new QuestionAnswer(1L, 10L), new QuestionAnswer(2L, 21L))));
+
+        CompanyReport report = reportService.companyReport("Acme");
+
+        assertEquals(2, report.getSurveys());
+        assertEquals(List.of(
+                new CompanyRecommendation(2L, "Question 2", 21L, "Answer 21", "Do 21", 3),
+                new CompanyRecommendation(1L, "Question 1", 10L, "Answer 10", "Do 10", 2),
+                new CompanyRecommendation(1L, "Question 1", 11L, "Answer 11", "Do 11", 1)), report.getRecommendations());
+        assertThrows(SetNotFoundException.class, () -> reportService.companyReport("Initech"));
+        verify(client, never()).getSet(anyLong());
+    }
+
+    @Test
+    public void testTable_LegacyTablesExpire() {
+        ReportService.TableExpiry expiry = new ReportService.TableExpiry(Duration.ofMinutes(5));
+        SuggestionTable table = SuggestionTable.of(set());
+
+        assertEquals(Duration.ofMinutes(5).toNanos(), expiry.expireAfterCreate("set:7", table, 0));
+        assertEquals(Long.MAX_VALUE, expiry.expireAfterCreate("0a1b2c", table, 0));
+        assertEquals(Duration.ofMinutes(5).toNanos(), expiry.expireAfterUpdate("set:7", table, 0, 1));
+        assertEquals(42, expiry.expireAfterRead("set:7", table, 0, 42));
+    }
+
+    @Test
+    public void testCompanyReport_LooksUpEachSurveyInItsOwnSet() {
+        List<SetNameDto> edited = set();
+        edited.set(0, new SetNameDto(1L, "Question 1", List.of(
+                new Answer(10L, "Answer 10", "Do 10"), new Answer(12L, "Answer 12", "Do 12"))));
+        long first = survey("Acme", set());
+        long second = survey("Acme", edited);
+        // An answer the first survey's set does not have
+        tally.record(new ResponseTally.Changes().add(first, List.of(new QuestionAnswer(1L, 12L))));
+        tally.record(new ResponseTally.Changes().add(second, List.of(new QuestionAnswer(1L, 12L))));
+
+        CompanyReport report = reportService.companyReport("Acme");
+
+        assertEquals(List.of(new CompanyRecommendation(1L, "Question 1", 12L, "Answer 12", "Do 12", 2)), report.getRecommendations());
+    }
+
+    private long survey(String companyName, List<SetNameDto> set) {
+        long surveyid = surveyRepository.save(new Survey(null, 1L, "requestor", companyName, 1L, LocalDate.now(), null)).getSurveyid();
+        snapshotRepository.save(snapshotCodec.encode(surveyid, 1L, set));
+        return surveyid;
+    }
+
+    private static List<SetNameDto> set() {
+        List<SetNameDto> set = new ArrayList<>();
+        for (long q = 1; q <= QUESTIONS; q++)
+            set.add(new SetNameDto(q, "Question " + q, List.of(
+                    new Answer(q * 10, "Answer " + q * 10, "Do " + q * 10),
+                    new Answer(q * 10 + 1, "Answer " + (q * 10 + 1), "Do " + (q * 10 + 1)))));
+        return set;
+    }
+}
@@ -0,0 +1,143 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.exception.InvalidResponseException;
+import com.ust.Survey_api.exception.RecipientNotFoundException;
+import com.ust.Survey_api.feign.QuestionAnswer;
+import com.ust.Survey_api.feign.ResponseSubmission;
+import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.repository.SurveyResponseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ResponseIngestionService.class, ResponseTally.class, SurveyProgressService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ResponseIngestionServiceTest {
+
+    private static final int CALLERS = 32;
+
+    @Autowired
+    private ResponseIngestionService ingestionService;
+
+    @Autowired
+    private ResponseTally tally;
+
+    @Autowired
+    private SurveyProgressService progressService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SurveyResponseRepository responseRepository;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        responseRepository.deleteAll();
+        emailRepository.deleteAll();
+        surveyRepository.deleteAll();
+    }
+
+    @Test
+    public void testSubmit_ConcurrentSubmissionsShareCommits() throws Exception {
+        long surveyid = survey();
+        int recipients = 2000;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < recipients; i++)
+            rows.add(new Object[]{"user" + i + "@example.com", surveyid, Status.SENT.ordinal()});
+        jdbcTemplate.batchUpdate("insert into survey_details (email, surveyid, status) values (?, ?, ?)", rows);
+
+        long flushesBefore = ingestionService.flushCount();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < recipients; i++) {
+                ResponseSubmission submission = submission("user" + i + "@example.com");
+                results.add(CompletableFuture.supplyAsync(() -> ingestionService.submit(surveyid, submission), callers)
+                        .thenCompose(result -> result));
+            }
+            for (CompletableFuture<Boolean> result : results)
+                assertTrue(result.get(30, TimeUnit.SECONDS));
+        } finally {
+            callers.shutdownNow();
+        }
+
+        long flushes = ingestionService.flushCount() - flushesBefore;
+        assertTrue(flushes < recipients, flushes + " commits");
+        assertEquals(recipients * 3, responseRepository.findBySurveyid(surveyid).size());
+        assertTrue(emailRepository.findBySurveyid(surveyid).stream().allMatch(e -> e.getStatus() == Status.COMPLETED));
+        assertEquals(Map.of(1L, Map.of(10L, (long) recipients), 2L, Map.of(20L, (long) recipients), 3L, Map.of(31L, (long) recipients)),
+                tally.results(surveyid));
+        assertEquals(recipients, progressService.progress(surveyid).getRecipients().get(Status.COMPLETED));
+    }
+
+    @Test
+    public void testSubmit_SecondSubmissionIsRejected() throws Exception {
+        long surveyid = survey();
+        emailRepository.save(new Emails(null, "a@example.com", surveyid, Status.SENT));
+
+        assertTrue(ingestionService.submit(surveyid, submission("a@example.com")).get(5, TimeUnit.SECONDS));
+        assertFalse(ingestionService.submit(surveyid, submission("a@example.com")).get(5, TimeUnit.SECONDS));
+
+        assertEquals(3, responseRepository.findBySurveyid(surveyid).size());
+        assertEquals(1, progressService.progress(surveyid).getRecipients().get(Status.COMPLETED));
+    }
+
+    @Test
+    public void testSubmit_UnknownRecipientOrClosedSurvey() {
+        long surveyid = survey();
+        emailRepository.save(new Emails(null, "a@example.com", surveyid, Status.SENT));
+
+        assertThrows(RecipientNotFoundException.class, () -> ingestionService.submit(surveyid, submission("b@example.com")));
+
+        Survey survey = surveyRepository.findBySurveyid(surveyid);
+        survey.setClosedAt(LocalDateTime.now());
+        surveyRepository.save(survey);
+        assertThrows(RecipientNotFoundException.class, () -> ingestionService.submit(surveyid, submission("a@example.com")));
+    }
+
+    @Test
+    public void testSubmit_RejectsRepeatedQuestion() {
+        ResponseSubmission submission = new ResponseSubmission("a@example.com",
+                List.of(new QuestionAnswer(1L, 1L), new QuestionAnswer(1L, 2L)));
+
+        assertThrows(InvalidResponseException.class, () -> ingestionService.submit(1L, submission));
+    }
+
+    private static ResponseSubmission submission(String email) {
+        return new ResponseSubmission(email, List.of(
+                new QuestionAnswer(1L, 10L), new QuestionAnswer(2L, 20L), new QuestionAnswer(3L, 31L)));
+    }
+
+    private long survey() {
+        return surveyRepository.save(new Survey(null, 1L, "requestor", "companyName", 1L, LocalDate.now(), null)).getSurveyid();
+    }
+}
@@ -0,0 +1,117 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.feign.QuestionAnswer;
+import com.ust.Survey_api.repository.AnswerTallyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ResponseTallyTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AnswerTallyRepository tallyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        tallyRepository.deleteAll();
+    }
+
+    @Test
+    public void testRecord_CountsEveryAnswerUnderConcurrentUpdates() throws Exception {
+        ResponseTally tally = tally(Duration.ofHours(1));
+        tally.record(new ResponseTally.Changes().add(1L, List.of(new QuestionAnswer(3L, 30L))));
+        assertEquals(Map.of(3L, Map.of(30L, 1L)), tally.results(1L));
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                long answerId = i % 2 == 0 ? 10L : 11L;
+                results.add(callers.submit(() -> tally.record(new ResponseTally.Changes()
+                        .add(1L, List.of(new QuestionAnswer(1L, answerId), new QuestionAnswer(2L, 20L))))));
+            }
+            for (Future<?> result : results)
+                result.get();
+        } finally {
+            callers.shutdownNow();
+        }
+
+        Map<Long, Map<Long, Long>> expected = Map.of(1L, Map.of(10L, 1000L, 11L, 1000L), 2L, Map.of(20L, 2000L), 3L, Map.of(30L, 1L));
+        // The cached entry took every committed answer
+        assertEquals(expected, tally.results(1L));
+        // Another instance reads the same counts from the summary table
+        assertEquals(expected, tally(Duration.ofHours(1)).results(1L));
+    }
+
+    @Test
+    public void testRecord_RollsBackWithCallerTransaction() {
+        ResponseTally tally = tally(Duration.ofHours(1));
+        tally.record(new ResponseTally.Changes().add(1L, List.of(new QuestionAnswer(1L, 10L))));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            tally.record(new ResponseTally.Changes().add(1L, List.of(new QuestionAnswer(1L, 10L), new QuestionAnswer(2L, 20L))));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(Map.of(1L, Map.of(10L, 1L)), tally.results(1L));
+    }
+
+    @Test
+    public void testResults_SeeCountsWrittenByOtherInstances() {
+        ResponseTally local = tally(Duration.ofHours(1));
+        ResponseTally other = tally(Duration.ofHours(1));
+        ResponseTally expiring = tally(Duration.ZERO);
+        assertEquals(Map.of(), local.results(1L));
+        assertEquals(Map.of(), expiring.results(1L));
+
+        // Unknown surveys are not cached, so the first counts show up at once
+        other.record(new ResponseTally.Changes().add(1L, List.of(new QuestionAnswer(1L, 10L))));
+        assertEquals(Map.of(1L, Map.of(10L, 1L)), local.results(1L));
+
+        // A cached survey picks up other instances' counts after the TTL
+        other.record(new ResponseTally.Changes().add(1L, List.of(new QuestionAnswer(1L, 11L))));
+        assertEquals(Map.of(1L, Map.of(10L, 1L, 11L, 1L)), expiring.results(1L));
+        assertEquals(Map.of(1L, Map.of(10L, 1L)), local.results(1L));
+    }
+
+    @Test
+    public void testRecord_AddsLocalCommitsToCachedResults() {
+        ResponseTally tally = tally(Duration.ofHours(1));
+        tally.record(new ResponseTally.Changes().add(1L, List.of(new QuestionAnswer(1L, 10L))));
+        Map<Long, Map<Long, Long>> before = tally.results(1L);
+
+        // Served from memory: the table is not read again
+        jdbcTemplate.update("delete from survey_answer_tally");
+        tally.record(new ResponseTally.Changes().add(1L, List.of(new QuestionAnswer(1L, 10L), new QuestionAnswer(2L, 20L))));
+
+        assertEquals(Map.of(1L, Map.of(10L, 2L), 2L, Map.of(20L, 1L)), tally.results(1L));
+        assertEquals(Map.of(1L, Map.of(10L, 1L)), before);
+    }
+
+    private ResponseTally tally(Duration ttl) {
+        return new ResponseTally(jdbcTemplate, transactionManager, 100, ttl);
+    }
+}
@@ -1,29 +1,40 @@
 package com.ust.Survey_api.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ust.Survey_api.exception.AssessmentUnavailableException;
 import com.ust.Survey_api.exception.SetNotFoundException;
 import com.ust.Survey_api.feign.*;
 import com.ust.Survey_api.model.Emails;
 import com.ust.Survey_api.model.Status;
 import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.model.SurveySetSnapshot;
 import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyFilter;
 import com.ust.Survey_api.repository.SurveyRepository;
+import com.ust.Survey_api.repository.SurveySetSnapshotRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +53,15 @@ public class ServiceImplTest {
     @Mock
     private EmailRepository emailRepository;
 
+    @Mock
+    private SurveySetSnapshotRepository snapshotRepository;
+
+    @Mock
+    private SurveyProgressService progressService;
+
+    @Spy
+    private SetSnapshotCodec snapshotCodec = new SetSnapshotCodec(new ObjectMapper());
+
     @Value("${survey.expire.time.days}")
     private int expireTimeDays = 30;  // Mocking the @Value annotation
 
@@ -79,6 +99,19 @@ public class ServiceImplTest {
         verify(client, times(1)).getSet(anyLong());
     }
 
+    @Test
+    public void testGetSurveys_EachSurveyReportsItsOwnExpiry() {
+        Survey second = new Survey(2L, 2L, "requestor", "companyName", 1L, LocalDate.now(), null);
+        survey.setExpireDate(LocalDate.of(2030, 1, 1));
+        second.setExpireDate(LocalDate.of(2030, 6, 1));
+        when(repo.findByClosedAtIsNull()).thenReturn(Arrays.asList(survey, second));
+
+        List<FullResponse> responses = service.getSurveys(false);
+
+        assertEquals(LocalDate.of(2030, 1, 1), responses.get(0).getExpireDate());
+        assertEquals(LocalDate.of(2030, 6, 1), responses.get(1).getExpireDate());
+    }
+
     @Test
     public void testAddSurvey_SetNotFoundException() {
         when(client.getSet(anyLong())).thenThrow(new SetNotFoundException("Set not found."));
@@ -87,10 +120,18 @@ public class ServiceImplTest {
         verify(repo, never()).save(any(Survey.class));
     }
 
+    @Test
+    public void testAddSurvey_AssessmentUnavailableIsNotReportedAsBadSet() {
+        when(client.getSet(anyLong())).thenThrow(new AssessmentUnavailableException("Set data is temporarily unavailable.", null));
+
+        assertThrows(AssessmentUnavailableException.class, () -> service.addSurvey(surveyRequestDto));
+        verify(repo, never()).save(any(Survey.class));
+    }
+
     @Test
     public void testGetSurveys_Success() {
-        when(repo.findAll()).thenReturn(Collections.singletonList(survey));
-        when(client.getSet(anyLong())).thenReturn(ResponseEntity.ok(setNameDtoList));
+        when(repo.findByClosedAtIsNull()).thenReturn(Collections.singletonList(survey));
+        when(client.getSets(anyCollection())).thenReturn(ResponseEntity.ok(Map.of(1L, setNameDtoList)));
 
         List<FullResponse> fullResponses = service.getSurveys();
 
@@ -101,8 +142,37 @@ public class ServiceImplTest {
         assertEquals(survey.getSetid(), fr.getSetId());
         assertNotNull(fr.getSetdata());
 
-        verify(repo, times(1)).findAll();
-        verify(client, times(1)).getSet(anyLong());
+        verify(repo, times(1)).findByClosedAtIsNull();
+        verify(client, times(1)).getSets(anyCollection());
+        verify(client, never()).getSet(anyLong());
+    }
+
+    @Test
+    public void testGetSurveys_FetchesEachSetOnce() {
+        Survey second = new Survey(2L, 2L, "requestor", "companyName", 1L, LocalDate.now(), null);
+        Survey third = new Survey(3L, 3L, "requestor", "companyName", 2L, LocalDate.now(), null);
+        when(repo.findByClosedAtIsNull()).thenReturn(Arrays.asList(survey, second, third));
+        when(client.getSets(List.of(1L, 2L)))
+                .thenReturn(ResponseEntity.ok(Map.of(1L, setNameDtoList, 2L, setNameDtoList)));
+
+        List<FullResponse> fullResponses = service.getSurveys();
+
+        assertEquals(3, fullResponses.size());
+        fullResponses.forEach(fr -> assertEquals(setNameDtoList, fr.getSetdata()));
+        verify(client, times(1)).getSets(List.of(1L, 2L));
+    }
+
+    @Test
+    public void testGetSurveys_FailedSetDoesNotFailListing() {
+        Survey second = new Survey(2L, 2L, "requestor", "companyName", 2L, LocalDate.now(), null);
+        when(repo.findByClosedAtIsNull()).thenReturn(Arrays.asList(survey, second));
+        when(client.getSets(anyCollection())).thenThrow(new RuntimeException("Assessment service down"));
+
+        List<FullResponse> fullResponses = service.getSurveys();
+
+        assertEquals(2, fullResponses.size());
+        assertNull(fullResponses.get(0).getSetdata());
+        assertNull(fullResponses.get(1).getSetdata());
     }
 
     @Test
@@ -121,6 +191,92 @@ public class ServiceImplTest {
         verify(client, times(1)).getSet(anyLong());
     }
 
+    @Test
+    public void testAddSurvey_StoresSetSnapshot() {
+        when(client.getSet(anyLong())).thenReturn(ResponseEntity.ok(setNameDtoList));
+        when(repo.save(any(Survey.class))).thenReturn(survey);
+
+        service.addSurvey(surveyRequestDto);
+
+        ArgumentCaptor<SurveySetSnapshot> saved = ArgumentCaptor.forClass(SurveySetSnapshot.class);
+        verify(snapshotRepository).save(saved.capture());
+        assertEquals(survey.getSurveyid(), saved.getValue().getSurveyid());
+        assertEquals(1L, saved.getValue().getSetid());
+        assertEquals(SetSnapshotCodec.FORMAT_VERSION, saved.getValue().getFormatVersion());
+        assertEquals(setNameDtoList, snapshotCodec.decode(saved.getValue()));
+    }
+
+    @Test
+    public void testGetSurveyById_ReadsSnapshotWithoutCallingAssessmentService() {
+        SurveySetSnapshot snapshot = snapshotCodec.encode(1L, 1L, setNameDtoList);
+        when(repo.findBySurveyid(anyLong())).thenReturn(survey);
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(snapshot));
+
+        FullResponse fr = service.getSurveyById(1L);
+
+        assertEquals(setNameDtoList, fr.getSetdata());
+        verify(client, never()).getSet(anyLong());
+    }
+
+    @Test
+    public void testGetSurveys_FetchesLiveSetsOnlyForSurveysWithoutSnapshot() {
+        Survey legacy = new Survey(2L, 2L, "requestor", "companyName", 2L, LocalDate.now(), null);
+        SurveySetSnapshot snapshot = snapshotCodec.encode(1L, 1L, setNameDtoList);
+        when(repo.findByClosedAtIsNull()).thenReturn(Arrays.asList(survey, legacy));
+        when(snapshotRepository.findAllById(any())).thenReturn(List.of(snapshot));
+        when(client.getSets(anyCollection())).thenReturn(ResponseEntity.ok(Map.of(2L, setNameDtoList)));
+
+        List<FullResponse> fullResponses = service.getSurveys();
+
+        assertEquals(setNameDtoList, fullResponses.get(0).getSetdata());
+        assertEquals(setNameDtoList, fullResponses.get(1).getSetdata());
+        verify(client, times(1)).getSets(List.of(2L));
+    }
+
+    @Test
+    public void testGetSurveys_WithoutSetdataSkipsSetLookups() {
+        when(repo.findByClosedAtIsNull()).thenReturn(Arrays.asList(survey));
+
+        List<FullResponse> fullResponses = service.getSurveys(false);
+
+        assertEquals(1, fullResponses.size());
+        assertNull(fullResponses.get(0).getSetdata());
+        verifyNoInteractions(client, snapshotRepository);
+    }
+
+    @Test
+    public void testGetSurveyById_WithoutSetdataSkipsSetLookups() {
+        when(repo.findBySurveyid(anyLong())).thenReturn(survey);
+
+        FullResponse fr = service.getSurveyById(1L, false);
+
+        assertEquals(survey.getSurveyid(), fr.getSurveyid());
+        assertNull(fr.getSetdata());
+        verifyNoInteractions(client, snapshotRepository);
+    }
+
+    @Test
+    public void testGetSurveyPage_FullPageHasNextCursor() {
+        Survey second = new Survey(2L, 2L, "requestor", "companyName", 1L, LocalDate.now(), null);
+        when(repo.findBy(any(Specification.class), any())).thenReturn(List.of(survey, second));
+
+        SurveyPage page = service.getSurveyPage(new SurveyFilter(), null, 2, false);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(2L, page.getNextCursor());
+        verify(repo, never()).findByClosedAtIsNull();
+    }
+
+    @Test
+    public void testGetSurveyPage_ShortPageIsLast() {
+        when(repo.findBy(any(Specification.class), any())).thenReturn(List.of(survey));
+
+        SurveyPage page = service.getSurveyPage(new SurveyFilter("companyName", null, null, null, null), 5L, 2, false);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
     @Test
     public void testGetSurveyById_SetNotFoundException() {
         when(repo.findBySurveyid(anyLong())).thenReturn(null);
@@ -156,6 +312,7 @@ public class ServiceImplTest {
 
         verify(repo, times(1)).findBySurveyid(anyLong());
         verify(emailRepository, times(1)).saveAll(anyList());
+        verify(progressService, times(1)).apply(any(SurveyProgressService.Changes.class));
     }
 
 
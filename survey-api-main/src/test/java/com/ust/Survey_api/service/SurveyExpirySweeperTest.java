@@ -0,0 +1,96 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.model.Emails;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.SurveyFilter;
+import com.ust.Survey_api.repository.SurveyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "survey.expire.sweep.survey-batch-size=2",
+        "survey.expire.sweep.recipient-batch-size=3"
+})
+@Import({SurveyExpirySweeper.class, SurveyProgressService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SurveyExpirySweeperTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2030, 3, 1);
+
+    @Autowired
+    private SurveyExpirySweeper sweeper;
+
+    @Autowired
+    private SurveyProgressService progressService;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @AfterEach
+    public void tearDown() {
+        emailRepository.deleteAll();
+        surveyRepository.deleteAll();
+    }
+
+    @Test
+    public void testCloseExpired_ClosesExpiredSurveysAndTheirPendingRecipients() {
+        List<Long> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            expired.add(survey(TODAY.minusDays(i + 1)));
+        long current = survey(TODAY);
+        long legacy = survey(null);
+        for (int i = 0; i < 7; i++)
+            recipient(expired.get(0), Status.PENDING);
+        recipient(expired.get(0), Status.SENT);
+        recipient(expired.get(0), Status.APPROVED);
+        recipient(current, Status.PENDING);
+
+        assertEquals(5, sweeper.closeExpired(TODAY));
+
+        for (long surveyid : expired)
+            assertNotNull(surveyRepository.findBySurveyid(surveyid).getClosedAt());
+        assertNull(surveyRepository.findBySurveyid(current).getClosedAt());
+        assertNull(surveyRepository.findBySurveyid(legacy).getClosedAt());
+        List<Status> statuses = emailRepository.findBySurveyid(expired.get(0)).stream().map(Emails::getStatus).toList();
+        assertEquals(7, statuses.stream().filter(s -> s == Status.EXPIRED).count());
+        assertTrue(statuses.contains(Status.SENT));
+        assertTrue(statuses.contains(Status.APPROVED));
+        assertEquals(Status.PENDING, emailRepository.findBySurveyid(current).get(0).getStatus());
+        assertEquals(7, sweeper.expiredRecipients());
+        assertEquals(7, progressService.progress(expired.get(0)).getRecipients().get(Status.EXPIRED));
+
+        // Closed surveys drop out of listings and are not swept again
+        assertEquals(Set.of(current, legacy), surveyRepository.findByClosedAtIsNull().stream().map(Survey::getSurveyid).collect(Collectors.toSet()));
+        assertEquals(2, surveyRepository.findAll(new SurveyFilter().after(null)).size());
+        assertEquals(0, sweeper.closeExpired(TODAY));
+    }
+
+    private long survey(LocalDate expireDate) {
+        Survey survey = new Survey(null, 1L, "requestor", "companyName", 1L, LocalDate.now(), null);
+        survey.setExpireDate(expireDate);
+        return surveyRepository.save(survey).getSurveyid();
+    }
+
+    private void recipient(long surveyid, Status status) {
+        emailRepository.save(new Emails(null, "user" + emailRepository.count() + "@example.com", surveyid, status));
+    }
+}
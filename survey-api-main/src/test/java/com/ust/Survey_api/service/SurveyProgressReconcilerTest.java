@@ -0,0 +1,152 @@
+package com.ust.Survey_api.service;
+
+import com.ust.Survey_api.feign.SurveyProgress;
+import com.ust.Survey_api.model.Status;
+import com.ust.Survey_api.model.Survey;
+import com.ust.Survey_api.repository.EmailRepository;
+import com.ust.Survey_api.repository.RecipientStatusCountRepository;
+import com.ust.Survey_api.repository.SurveyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "survey.progress.reconcile.chunk-size=2",
+        "survey.progress.reconcile.threads=3"
+})
+@Import({SurveyProgressReconciler.class, SurveyProgressService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SurveyProgressReconcilerTest {
+
+    @Autowired
+    private SurveyProgressReconciler reconciler;
+
+    @Autowired
+    private SurveyProgressService progressService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecipientStatusCountRepository countRepository;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private SurveyRepository surveyRepository;
+
+    @AfterEach
+    public void tearDown() {
+        countRepository.deleteAll();
+        emailRepository.deleteAll();
+        surveyRepository.deleteAll();
+    }
+
+    @Test
+    public void testReconcile_RebuildsCountersFromRecipients() {
+        List<Long> surveyids = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int s = 0; s < 5; s++) {
+            long surveyid = survey();
+            surveyids.add(surveyid);
+            // survey s has s + 1 PENDING, 2 SENT and s COMPLETED recipients
+            for (int i = 0; i < s + 1; i++)
+                rows.add(new Object[]{"pending" + i + "@example.com", surveyid, Status.PENDING.ordinal()});
+            for (int i = 0; i < 2; i++)
+                rows.add(new Object[]{"sent" + i + "@example.com", surveyid, Status.SENT.ordinal()});
+            for (int i = 0; i < s; i++)
+                rows.add(new Object[]{"done" + i + "@example.com", surveyid, Status.COMPLETED.ordinal()});
+        }
+        jdbcTemplate.batchUpdate("insert into survey_details (email, surveyid, status) values (?, ?, ?)", rows);
+        long empty = survey();
+
+        assertEquals(14, reconciler.reconcile());
+
+        for (int s = 0; s < 5; s++) {
+            SurveyProgress progress = progressService.progress(surveyids.get(s));
+            assertEquals(s + 1, progress.getRecipients().get(Status.PENDING));
+            assertEquals(2, progress.getRecipients().get(Status.SENT));
+            assertEquals(s, progress.getRecipients().get(Status.COMPLETED));
+            assertEquals(0, progress.getRecipients().get(Status.FAILED));
+            assertEquals(2L * s + 3, progress.getTotal());
+            assertEquals((double) s / (2 * s + 3), progress.getResponseRate(), 1e-9);
+        }
+        // Only statuses that have recipients get a row
+        assertEquals(3, countRepository.findBySurveyid(surveyids.get(1)).size());
+        assertTrue(countRepository.findBySurveyid(empty).isEmpty());
+        assertEquals(0, progressService.progress(empty).getTotal());
+
+        // Nothing drifted since
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    public void testReconcile_CorrectsDrift() {
+        long surveyid = survey();
+        jdbcTemplate.update("insert into survey_details (email, surveyid, status) values (?, ?, ?)",
+                "a@example.com", surveyid, Status.SENT.ordinal());
+        reconciler.reconcile();
+        jdbcTemplate.update("update survey_progress set recipients = 7 where surveyid = ? and status = ?",
+                surveyid, Status.SENT.ordinal());
+        jdbcTemplate.update("insert into survey_progress (surveyid, status, recipients) values (?, ?, 2)",
+                surveyid, Status.EXPIRED.ordinal());
+
+        assertEquals(2, reconciler.reconcile());
+
+        Map<Status, Long> recipients = progressService.progress(surveyid).getRecipients();
+        assertEquals(1, recipients.get(Status.SENT));
+        assertEquals(0, recipients.get(Status.EXPIRED));
+    }
+
+    @Test
+    public void testApply_NeedsTheCallersTransaction() {
+        SurveyProgressService.Changes changes = new SurveyProgressService.Changes().add(1L, Status.PENDING, 1);
+
+        assertThrows(IllegalTransactionStateException.class, () -> progressService.apply(changes));
+    }
+
+    @Test
+    public void testApply_FirstChangeCreatesRowsInTheCallersTransaction() {
+        long surveyid = survey();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            progressService.apply(new SurveyProgressService.Changes().add(surveyid, Status.PENDING, 3));
+            status.setRollbackOnly();
+        });
+        assertTrue(countRepository.findBySurveyid(surveyid).isEmpty());
+
+        transaction.executeWithoutResult(status ->
+                progressService.apply(new SurveyProgressService.Changes().add(surveyid, Status.PENDING, 3)));
+        transaction.executeWithoutResult(status ->
+                progressService.apply(new SurveyProgressService.Changes().move(surveyid, Status.PENDING, Status.SENT)));
+
+        Map<Status, Long> recipients = progressService.progress(surveyid).getRecipients();
+        assertEquals(2, recipients.get(Status.PENDING));
+        assertEquals(1, recipients.get(Status.SENT));
+    }
+
+    private long survey() {
+        return surveyRepository.save(new Survey(null, 1L, "requestor", "companyName", 1L, LocalDate.now(), null)).getSurveyid();
+    }
+}